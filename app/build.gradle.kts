@@ -1,8 +1,51 @@
+import com.badlogic.gdx.tools.texturepacker.TexturePacker
+import com.sotiris.engine.build.TextureCompressor
+
+buildscript {
+    repositories {
+        mavenCentral()
+    }
+    dependencies {
+        // TexturePacker for packTextures, keep in step with gdxVersion below
+        classpath("com.badlogicgames.gdx:gdx-tools:1.12.1")
+    }
+}
+
 plugins {
     id("com.android.application")
 }
 
 
+// Texture atlases packed from the loose sprites in src/main/assets, see packTextures below
+val rawAssetsDir = file("src/main/assets")
+val packedAssetsDir = layout.buildDirectory.dir("generated/packedAssets").get().asFile
+// Largest atlas page, override with -PatlasPageSize=2048 for low-end devices
+val atlasPageSize = (findProperty("atlasPageSize") as String?)?.toInt() ?: 4096
+
+// One atlas per group. Sprite sheets are split into frames at runtime and must stay whole,
+// so only groups drawn through atlas sprites are trimmed.
+class AtlasGroup(val name: String, val includes: List<String>, val excludes: List<String>, val trim: Boolean)
+
+val atlasGroups = listOf(
+    AtlasGroup("male", listOf("male/*.png"), listOf("male/*_shadow.png"), trim = false),
+    AtlasGroup("female", listOf("female/*.png"), emptyList(), trim = false),
+    AtlasGroup("enemy", listOf("enemy/*.png"), emptyList(), trim = false),
+    AtlasGroup("cars", listOf("cars/*.png"), emptyList(), trim = true),
+    AtlasGroup("sprites", listOf("bullet.png", "Shadow.png", "male/*_shadow.png"), emptyList(), trim = false)
+)
+
+fun atlasSources(group: AtlasGroup) = fileTree(rawAssetsDir) {
+    include(group.includes)
+    exclude(group.excludes)
+}
+
+// ETC copies of the largest textures, see compressTextures below. The PNGs still ship for
+// GPUs that cannot sample the compressed variant.
+val compressedAssetsDir = layout.buildDirectory.dir("generated/compressedAssets").get().asFile
+val compressedTextures = listOf("maps/Tileset.png", "blood_overlay.png")
+// Every page of these atlases, as packed by packTextures
+val compressedAtlases = listOf("male", "female", "enemy")
+
 android {
     namespace = "com.sotiris.engine"
     compileSdk = 34
@@ -19,6 +62,8 @@ android {
     sourceSets {
         getByName("main") {
             jniLibs.srcDirs("libs")
+            assets.srcDir(packedAssetsDir)
+            assets.srcDir(compressedAssetsDir)
         }
     }
 
@@ -78,6 +123,76 @@ dependencies {
 
     // Testing dependencies
     testImplementation("junit:junit:4.13.2")
+    // Headless backend and desktop natives, so unit tests can decode the real assets on the host
+    testImplementation("com.badlogicgames.gdx:gdx-backend-headless:$gdxVersion")
+    testImplementation("com.badlogicgames.gdx:gdx-platform:$gdxVersion:natives-desktop")
     androidTestImplementation("androidx.test.ext:junit:1.2.1")
     androidTestImplementation("androidx.test.espresso:espresso-core:3.6.1")
-}
\ No newline at end of file
+}
+
+val packTextures by tasks.registering {
+    group = "assets"
+    description = "Packs the sprite sheets and sprites into texture atlases under build/generated/packedAssets/atlas."
+
+    inputs.property("atlasPageSize", atlasPageSize)
+    atlasGroups.forEach { inputs.files(atlasSources(it)).withPropertyName("sprites_${it.name}") }
+    outputs.dir(packedAssetsDir)
+
+    doLast {
+        val atlasDir = File(packedAssetsDir, "atlas")
+        project.delete(atlasDir)
+        for (atlasGroup in atlasGroups) {
+            val sources = atlasSources(atlasGroup).files
+            if (sources.isEmpty()) {
+                // A checkout without this art still builds, the game fails when it loads the atlas
+                logger.warn("packTextures: no sprites found for atlas '${atlasGroup.name}', skipped")
+                continue
+            }
+            // TexturePacker names regions by path, so flatten each group into its own folder
+            val staging = File(temporaryDir, atlasGroup.name)
+            project.delete(staging)
+            project.copy {
+                from(sources)
+                into(staging)
+            }
+            val settings = TexturePacker.Settings().apply {
+                maxWidth = atlasPageSize
+                maxHeight = atlasPageSize
+                stripWhitespaceX = atlasGroup.trim
+                stripWhitespaceY = atlasGroup.trim
+                rotation = false
+                paddingX = 2
+                paddingY = 2
+                duplicatePadding = true
+            }
+            TexturePacker.process(settings, staging.absolutePath, atlasDir.absolutePath, atlasGroup.name)
+        }
+    }
+}
+
+val compressTextures by tasks.registering {
+    group = "assets"
+    description = "Encodes the large textures and the character atlas pages as ETC in KTX files under build/generated/compressedAssets."
+    dependsOn(packTextures)
+
+    val textures = fileTree(rawAssetsDir) { include(compressedTextures) }
+    val atlasPages = fileTree(File(packedAssetsDir, "atlas")) { compressedAtlases.forEach { include("$it*.png") } }
+    inputs.files(textures).withPropertyName("textures")
+    inputs.files(atlasPages).withPropertyName("atlasPages")
+    outputs.dir(compressedAssetsDir)
+
+    doLast {
+        project.delete(compressedAssetsDir)
+        // Variants sit at the same relative path as their PNG, where the texture loader looks
+        textures.visit {
+            if (!isDirectory) {
+                TextureCompressor.compress(file, File(compressedAssetsDir, relativePath.parent.pathString))
+            }
+        }
+        atlasPages.files.forEach { TextureCompressor.compress(it, File(compressedAssetsDir, "atlas")) }
+    }
+}
+
+tasks.named("preBuild") {
+    dependsOn(packTextures, compressTextures)
+}
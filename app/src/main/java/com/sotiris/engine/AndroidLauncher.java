@@ -8,6 +8,7 @@ import android.view.View;
 import com.badlogic.gdx.backends.android.AndroidApplication;
 import com.badlogic.gdx.backends.android.AndroidApplicationConfiguration;
 import com.badlogic.gdx.Gdx;
+import com.sotiris.engine.utils.AssetManifest;
 
 import games.spooky.gdx.sfx.android.AndroidAudioDurationResolver;
 
@@ -27,7 +28,7 @@ public class AndroidLauncher extends AndroidApplication {
 
         if (missionId != null && missionId.equals("mission_1")) {
             AndroidAudioDurationResolver.initialize();
-            initialize(new Demo(this::onMissionComplete, gender), config);
+            initialize(new Demo(this::onMissionComplete, AssetManifest.resolve(missionId, gender)), config);
         }
         hideSystemUI();
     }
@@ -14,8 +14,7 @@ import com.badlogic.gdx.maps.MapLayer;
 import com.badlogic.gdx.maps.MapObject;
 import com.badlogic.gdx.maps.objects.RectangleMapObject;
 import com.badlogic.gdx.maps.tiled.TiledMap;
-import com.badlogic.gdx.maps.tiled.TmxMapLoader;
-import com.badlogic.gdx.maps.tiled.renderers.OrthogonalTiledMapRenderer;
+import com.badlogic.gdx.math.Matrix4;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.Body;
@@ -27,7 +26,6 @@ import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.ui.*;
 import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
 import com.badlogic.gdx.utils.Array;
-import com.badlogic.gdx.utils.Timer;
 import com.badlogic.gdx.utils.viewport.ExtendViewport;
 import com.badlogic.gdx.InputMultiplexer;
 
@@ -37,9 +35,24 @@ import com.crashinvaders.vfx.effects.RadialBlurEffect;
 import com.sotiris.engine.entities.BulletPool;
 import com.sotiris.engine.entities.Car;
 import com.sotiris.engine.entities.Enemy;
+import com.sotiris.engine.entities.EnemyArchetypeRegistry;
+import com.sotiris.engine.entities.EnemyPool;
 import com.sotiris.engine.entities.Player;
+import com.sotiris.engine.utils.AiScheduler;
+import com.sotiris.engine.utils.AssetManifest;
+import com.sotiris.engine.utils.AssetService;
+import com.sotiris.engine.utils.Atlases;
+import com.sotiris.engine.utils.BloodEffectBank;
 import com.sotiris.engine.utils.CollisionManager;
+import com.sotiris.engine.utils.CrowdAvoidance;
 import com.sotiris.engine.utils.CutsceneManager;
+import com.sotiris.engine.utils.EntityGrid;
+import com.sotiris.engine.utils.FlowField;
+import com.sotiris.engine.utils.HealthBarRenderer;
+import com.sotiris.engine.utils.LineOfSightService;
+import com.sotiris.engine.utils.ParticleSystem;
+import com.sotiris.engine.utils.PathService;
+import com.sotiris.engine.utils.StaticLayerCache;
 import com.sotiris.engine.utils.WaveManager;
 import com.sotiris.engine.ui.GameUIBuilder;
 import com.sotiris.engine.ui.Joystick;
@@ -48,14 +61,11 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Random;
 import com.badlogic.gdx.assets.AssetManager;
-import com.badlogic.gdx.assets.loaders.resolvers.InternalFileHandleResolver;
 import com.sotiris.engine.utils.MySpatializedSoundPlayer;
 
 import com.sotiris.engine.ui.PieMenuManager;
 
 import games.spooky.gdx.sfx.Effects;
-import games.spooky.gdx.sfx.SfxSound;
-import games.spooky.gdx.sfx.SfxSoundLoader;
 import games.spooky.gdx.sfx.spatial.SomeSoundSpatializer2;
 
 public class Demo extends ApplicationAdapter {
@@ -63,6 +73,7 @@ public class Demo extends ApplicationAdapter {
     private GameUIBuilder uiBuilder;
     private BulletPool bulletPool;
     private enum GameState {
+        LOADING,
         CUTSCENE_START,
         PLAYING,
         GAME_OVER,
@@ -72,6 +83,10 @@ public class Demo extends ApplicationAdapter {
     }
 
     private GameState currentGameState;
+    private final AssetService assetService;
+    // True when the service was made for this Demo alone, as when AndroidLauncher runs it
+    private final boolean ownsAssetService;
+    private Array<String> acquiredAssets;
     private AssetManager assetManager;
     private MySpatializedSoundPlayer<Vector2> soundPlayer;
     private SomeSoundSpatializer2 spatializer;
@@ -84,17 +99,28 @@ public class Demo extends ApplicationAdapter {
     private SpriteBatch batch;
     private ShapeRenderer shapeRenderer;
     private TiledMap map;
-    private OrthogonalTiledMapRenderer mapRenderer;
+    // The "Map" and "s" tile layers and the static cars, baked once
+    private StaticLayerCache staticLayers;
     private Box2DDebugRenderer debugRenderer;
     private VfxManager vfxManager;
     private RadialBlurEffect radialBlurEffect;
     private Texture bloodOverlayTexture;
-    private ParticleEffect carBloodEffect;
+    private ParticleSystem particleSystem;
+    private BloodEffectBank bloodEffects;
+    private HealthBarRenderer healthBars;
     private Joystick joystick;
     private Texture rifleTexture;
     private static final float WEAPON_SCALE = 0.2f;
     private boolean isShooting = false;
     private CollisionManager collisionManager;
+    private EntityGrid entityGrid;
+    private FlowField flowField;
+    private PathService pathService;
+    private AiScheduler aiScheduler;
+    private LineOfSightService lineOfSight;
+    private CrowdAvoidance crowdAvoidance;
+    private EnemyArchetypeRegistry enemyArchetypes;
+    private EnemyPool enemyPool;
     private WaveManager waveManager;
     private World world;
     private final Rectangle cutsceneRectangle = new Rectangle(600, 300, 250, 250);
@@ -102,14 +128,22 @@ public class Demo extends ApplicationAdapter {
     private final Map<String, Texture> textureCache = new HashMap<>();
     float delta;
     private final Runnable onMissionComplete;
+    private final AssetManifest manifest;
     boolean Male;
-    public Demo(Runnable onMissionComplete, String gender) {
+    public Demo(Runnable onMissionComplete, AssetManifest manifest) {
+        this(onMissionComplete, manifest, new AssetService(), true);
+    }
+
+    public Demo(Runnable onMissionComplete, AssetManifest manifest, AssetService assetService) {
+        this(onMissionComplete, manifest, assetService, false);
+    }
+
+    private Demo(Runnable onMissionComplete, AssetManifest manifest, AssetService assetService, boolean ownsAssetService) {
         this.onMissionComplete = onMissionComplete;
-        if (gender != null && gender.contains("Female")) {
-            Male = false;
-        } else {
-            Male = true; // Default to male if not specified
-        }
+        this.manifest = manifest;
+        this.assetService = assetService;
+        this.ownsAssetService = ownsAssetService;
+        Male = manifest.isMale();
     }
     private void notifyAndroidLauncher() {
         onMissionComplete.run();
@@ -123,21 +157,37 @@ public class Demo extends ApplicationAdapter {
         camera.setToOrtho(false, 800, 480);
         batch = new SpriteBatch();
 
-        assetManager = new AssetManager(new InternalFileHandleResolver());
-        assetManager.setLoader(SfxSound.class, new SfxSoundLoader(new InternalFileHandleResolver()));
-        assetManager.setLoader(TiledMap.class, new TmxMapLoader(new InternalFileHandleResolver()));
+        assetManager = assetService.getAssetManager();
 
+        shapeRenderer = new ShapeRenderer();
+
+        // Queue only, render() feeds the AssetManager a slice of each frame and builds the
+        // world once everything is in
         loadAssets();
+        currentGameState = GameState.LOADING;
+    }
 
-        skin = new Skin();
-        skin.addRegions(assetManager.get("skin/uiskin.atlas", TextureAtlas.class));
-        skin.add("font", assetManager.get("skin/default.fnt", BitmapFont.class));
-        skin.load(Gdx.files.internal("skin/uiskin.json"));
+    /**
+     * Builds the stages, player and managers, called once the assets have loaded.
+     */
+    private void buildWorld() {
+        // Shared with the menu, the service disposes it
+        skin = assetService.getSkin();
 
 
-        map = assetManager.get("maps/map.tmx", TiledMap.class);
-        mapRenderer = new OrthogonalTiledMapRenderer(map, 1f);
+        map = assetManager.get(manifest.getMapPath(), TiledMap.class);
+        staticLayers = new StaticLayerCache(map, "Map", "s");
         collisionManager = new CollisionManager(map);
+        entityGrid = new EntityGrid(mapWidth(), mapHeight());
+        flowField = new FlowField(collisionManager, mapWidth(), mapHeight(),
+                map.getProperties().get("tilewidth", Integer.class));
+        pathService = new PathService(map, collisionManager);
+        aiScheduler = new AiScheduler();
+        lineOfSight = new LineOfSightService(collisionManager, mapWidth(), mapHeight());
+        crowdAvoidance = new CrowdAvoidance(entityGrid);
+        particleSystem = new ParticleSystem(assetManager);
+        bloodEffects = new BloodEffectBank(particleSystem, assetManager);
+        healthBars = new HealthBarRenderer(skin.getRegion("white"));
         world = new World(new Vector2(0, 0), true);
         debugRenderer = new Box2DDebugRenderer();
         gameStage = new Stage(new ExtendViewport(800, 480, camera));
@@ -151,10 +201,10 @@ public class Demo extends ApplicationAdapter {
         random = new Random();
         addStaticCars();
 
-        bulletPool = new BulletPool(gameStage, assetManager, collisionManager);
+        bulletPool = new BulletPool(gameStage, assetManager, collisionManager, entityGrid);
         initializeSoundPlayer();
 
-        player = new Player(400, 400, world, collisionManager, assetManager,Male, bulletPool);
+        player = new Player(400, 400, world, collisionManager, entityGrid, assetManager, Male, bulletPool, bloodEffects, healthBars);
         Vector2 spawnPos = getRandomSpawnPosition(player.getWidth(), player.getHeight());
         player.setPosition(spawnPos.x, spawnPos.y);
         Body playerBody = player.getBody();
@@ -165,11 +215,14 @@ public class Demo extends ApplicationAdapter {
         uiStage.addActor(joystick);
         initializeShootButton();
         rifleTexture = getTexture("rifle.png");
-        shapeRenderer = new ShapeRenderer();
 
         // Initialize WaveManager
+        enemyArchetypes = new EnemyArchetypeRegistry(assetManager);
+        enemyPool = new EnemyPool(gameStage, enemyArchetypes.get(EnemyArchetypeRegistry.GUNMAN), player,
+                collisionManager, world, bulletPool, entityGrid, flowField, pathService, lineOfSight, crowdAvoidance,
+                bloodEffects, healthBars, aiScheduler);
         waveManager = new WaveManager(gameStage, world, player, map, assetManager,
-                collisionManager, soundPlayer, bulletPool);
+                collisionManager, soundPlayer, enemyPool);
         waveManager.setWaveCallback(this::triggerCutsceneEnd);
 
         definePieMenuZones();
@@ -235,65 +288,37 @@ public class Demo extends ApplicationAdapter {
 
 
     private void loadAssets() {
-        assetManager.load("maps/map.tmx", TiledMap.class);
-        assetManager.load("skin/uiskin.atlas", TextureAtlas.class);
-        assetManager.load("skin/default.fnt", BitmapFont.class);
-        assetManager.load("rifle.png", Texture.class);
-        assetManager.load("touchpad.png", Texture.class);
-        assetManager.load("touchpad-knob.png", Texture.class);
-        assetManager.load("button_down_arcade.9.png", Texture.class);
-        assetManager.load("button_up_arcade.9.png", Texture.class);
-        assetManager.load("blood_overlay.png", Texture.class);
-        assetManager.load("blood.p", ParticleEffect.class);
-        for (int i = 0; i < 12; i++) {
-            assetManager.load("cars/carstatic_" + i + ".png", Texture.class);
+        // Only what this mission and character need, as resolved by the launcher
+        acquiredAssets = manifest.acquire(assetService);
+    }
+
+    private static final int LOAD_BUDGET_MILLIS = 12;
+    private final Matrix4 loadingProjection = new Matrix4();
+
+    // Loads for part of the frame so the GL thread keeps answering input, then draws progress
+    private void renderLoading() {
+        if (assetService.update(LOAD_BUDGET_MILLIS)) {
+            buildWorld();
+            // Stages did not exist when the screen was first sized
+            resize(Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+            return;
         }
-        assetManager.load("cars/car.png", Texture.class);
-        assetManager.load("cars/left_door.png", Texture.class);
-        assetManager.load("cars/right_door.png", Texture.class);
-        assetManager.load("enemy/enemy_idle.png", Texture.class);
-        assetManager.load("enemy/enemy_walk_gun.png", Texture.class);
-        assetManager.load("enemy/enemy_shoot.png", Texture.class);
-        assetManager.load("enemy/enemy_death.png", Texture.class);
-        assetManager.load("sounds/engine.wav", SfxSound.class);
-        assetManager.load("sounds/car_door_opened.wav", SfxSound.class);
-        assetManager.load("sounds/car_hit.wav", SfxSound.class);
-        assetManager.load("sounds/keystroke.wav", SfxSound.class);
-
-        assetManager.load("male/Idle_Gun.png", Texture.class);
-        assetManager.load("male/idle_spear.png", Texture.class);
-        assetManager.load("male/idle.png", Texture.class);
-        assetManager.load("male/Walk_Gun.png", Texture.class);
-        assetManager.load("male/walk_spear.png", Texture.class);
-        assetManager.load("male/walk.png", Texture.class);
-        assetManager.load("male/Run_Gun.png", Texture.class);
-        assetManager.load("male/run_spear.png", Texture.class);
-        assetManager.load("male/run.png", Texture.class);
-        assetManager.load("male/Shooting.png", Texture.class);
-        assetManager.load("male/attack_spear.png", Texture.class);
-        assetManager.load("male/death_Gun.png", Texture.class);
-        assetManager.load("male/death_spear.png", Texture.class);
-        assetManager.load("male/death_normal.png", Texture.class);
-
-        assetManager.load("bullet.png", Texture.class);
-
-        assetManager.load("female/Idle_Gun.png", Texture.class);
-        assetManager.load("female/idle_spear.png", Texture.class);
-        assetManager.load("female/idle.png", Texture.class);
-        assetManager.load("female/Walk_Gun.png", Texture.class);
-        assetManager.load("female/walk_spear.png", Texture.class);
-        assetManager.load("female/walk.png", Texture.class);
-        assetManager.load("female/Run_Gun.png", Texture.class);
-        assetManager.load("female/run_spear.png", Texture.class);
-        assetManager.load("female/run.png", Texture.class);
-        assetManager.load("female/Shooting.png", Texture.class);
-        assetManager.load("female/attack_spear.png", Texture.class);
-        assetManager.load("female/death_Gun.png", Texture.class);
-        assetManager.load("female/death_spear.png", Texture.class);
-        assetManager.load("female/death_normal.png", Texture.class);
-
-        assetManager.load("Shadow.png", Texture.class);
-        assetManager.finishLoading();
+
+        float width = Gdx.graphics.getWidth();
+        float height = Gdx.graphics.getHeight();
+        float barWidth = width * 0.6f;
+        float barHeight = 16f;
+        float barX = (width - barWidth) / 2f;
+        float barY = height / 2f - barHeight / 2f;
+
+        loadingProjection.setToOrtho2D(0, 0, width, height);
+        shapeRenderer.setProjectionMatrix(loadingProjection);
+        shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
+        shapeRenderer.setColor(0.2f, 0.2f, 0.2f, 1f);
+        shapeRenderer.rect(barX, barY, barWidth, barHeight);
+        shapeRenderer.setColor(Color.RED);
+        shapeRenderer.rect(barX, barY, barWidth * assetService.getProgress(), barHeight);
+        shapeRenderer.end();
     }
 
     private Texture getTexture(String path) {
@@ -304,15 +329,7 @@ public class Demo extends ApplicationAdapter {
     }
 
     public void triggerHitByCarEffect(float x, float y) {
-        Vector2 screenCoords = gameStage.getViewport().project(new Vector2(x, y));
-        carBloodEffect.setPosition(screenCoords.x, screenCoords.y);
-        carBloodEffect.start();
-        Timer.schedule(new Timer.Task(){
-            @Override
-            public void run() {
-                carBloodEffect.allowCompletion();
-            }
-        }, 3);
+        particleSystem.spawn(ParticleSystem.BLOOD, x, y);
     }
 
     private float shootButtonX;
@@ -368,8 +385,6 @@ public class Demo extends ApplicationAdapter {
         radialBlurEffect.setStrength(blurStrength);
         vfxManager.addEffect(radialBlurEffect);
         bloodOverlayTexture = getTexture("blood_overlay.png");
-        carBloodEffect = new ParticleEffect();
-        carBloodEffect.load(Gdx.files.internal("blood.p"), Gdx.files.internal(""));
     }
 
     private void definePieMenuZones() {
@@ -435,23 +450,26 @@ public class Demo extends ApplicationAdapter {
     private void addStaticCars() {
         MapLayer carStaticLayer = map.getLayers().get("CarStaticPoints");
         if (carStaticLayer != null) {
+            TextureAtlas carAtlas = assetManager.get(Atlases.CARS, TextureAtlas.class);
+            Array<Sprite> cars = new Array<>();
             for (MapObject object : carStaticLayer.getObjects()) {
                 if (object instanceof RectangleMapObject) {
                     RectangleMapObject rectObject = (RectangleMapObject) object;
                     Rectangle rect = rectObject.getRectangle();
                     collisionManager.addCollisionRectangle(rect);
                     int carIndex = random.nextInt(12);
-                    String carTexturePath = "cars/carstatic_" + carIndex + ".png";
-                    Texture carTexture = getTexture(carTexturePath);
-                    Image carImage = new Image(carTexture);
-                    float carX = rect.x + rect.width / 2 - carImage.getWidth() / 2;
-                    float carY = rect.y + rect.height / 2 - carImage.getHeight() / 2;
-                    carImage.setPosition(carX, carY);
-                    gameStage.addActor(carImage);
-                    Rectangle collisionRect = new Rectangle(carX, carY, carImage.getWidth(), carImage.getHeight());
+                    // The car sprites are trimmed, the atlas sprite keeps the original size and offset
+                    Sprite car = Atlases.createSprite(carAtlas, "carstatic", carIndex);
+                    float carX = rect.x + rect.width / 2 - car.getWidth() / 2;
+                    float carY = rect.y + rect.height / 2 - car.getHeight() / 2;
+                    car.setPosition(carX, carY);
+                    cars.add(car);
+                    Rectangle collisionRect = new Rectangle(carX, carY, car.getWidth(), car.getHeight());
                     collisionManager.addCollisionRectangle(collisionRect);
                 }
             }
+            // Drawn under the stage with the map, a restart rolls new cars and rebakes only these
+            staticLayers.setSprites(cars);
         }
     }
 
@@ -603,7 +621,17 @@ public class Demo extends ApplicationAdapter {
                 actor.remove();
             }
         }
-        collisionManager.clearCollisionRectangles();
+        // Enemies detached by gameStage.clear() never had remove() called, return them here
+        enemyPool.freeAll();
+        collisionManager.clearOverlay();
+        // gameStage.clear() detaches actors without calling remove(), so drop their grid entries here
+        entityGrid.clear();
+        flowField.invalidate();
+        pathService.clear();
+        aiScheduler.clear();
+        lineOfSight.clear();
+        particleSystem.clear();
+        healthBars.clear();
     }
 
     private static final float TIME_STEP = 1/60f;
@@ -614,6 +642,11 @@ public class Demo extends ApplicationAdapter {
         delta = Gdx.graphics.getDeltaTime();
         Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT | GL20.GL_DEPTH_BUFFER_BIT);
 
+        if (currentGameState == GameState.LOADING) {
+            renderLoading();
+            return;
+        }
+
         accumulator += delta;
 
         while (accumulator >= TIME_STEP) {
@@ -649,13 +682,26 @@ public class Demo extends ApplicationAdapter {
         if (soundPlayer != null) soundPlayer.update(delta);
         float lerp = 0.1f;
 
-        mapRenderer.setView(camera);
-        mapRenderer.render();
+        staticLayers.render(camera);
         shapeRenderer.setProjectionMatrix(camera.combined);
 
         handleInput();
+        // One field towards the player shared by every enemy, rebuilt only when the player changes tile
+        if (!player.isDead()) {
+            Vector2 playerPosition = player.getPosition();
+            flowField.update(playerPosition.x, playerPosition.y);
+            aiScheduler.update(delta, playerPosition, camera);
+        }
+        pathService.update();
         gameStage.act(delta);
+        // Answer this frame's line of sight queries in one batch, enemies read them next frame
+        if (!player.isDead()) {
+            Vector2 playerPosition = player.getPosition();
+            lineOfSight.resolve(playerPosition.x, playerPosition.y);
+        }
+        particleSystem.update(delta);
         gameStage.draw();
+        drawWorldOverlay();
         if (currentGameState == GameState.CUTSCENE_START || currentGameState == GameState.PLAYING) {
             shapeRenderer.begin(ShapeRenderer.ShapeType.Line);
             float glowWidth = 2f;
@@ -671,8 +717,9 @@ public class Demo extends ApplicationAdapter {
         if (player.getHealth() <= 150) {
             vfxManager.cleanUpBuffers();
             vfxManager.beginInputCapture();
-            mapRenderer.render();
+            staticLayers.render(camera);
             gameStage.draw();
+            drawWorldOverlay();
             vfxManager.endInputCapture();
             vfxManager.applyEffects();
             vfxManager.renderToScreen();
@@ -694,15 +741,23 @@ public class Demo extends ApplicationAdapter {
             settingsStage.act(delta);
             settingsStage.draw();
         }
-        carBloodEffect.update(delta);
         batch.begin();
-        carBloodEffect.draw(batch, delta);
         drawWeaponIcon();
 
         batch.end();
         waveManager.checkCarCollisions();
     }
 
+    // Every world particle effect and the health bars queued by the stage in one batch pass
+    private void drawWorldOverlay() {
+        Batch stageBatch = gameStage.getBatch();
+        stageBatch.setProjectionMatrix(camera.combined);
+        stageBatch.begin();
+        particleSystem.draw(stageBatch);
+        healthBars.flush(stageBatch);
+        stageBatch.end();
+    }
+
     private void handleInput() {
         if (currentGameState != GameState.PLAYING) return;
         if (Gdx.input.isKeyPressed(Input.Keys.BACK)) triggerSettingsSequence();
@@ -752,26 +807,26 @@ public class Demo extends ApplicationAdapter {
     public void dispose() {
         if (vfxManager != null) vfxManager.dispose();
         if (radialBlurEffect != null) radialBlurEffect.dispose();
-        if (bloodOverlayTexture != null) bloodOverlayTexture.dispose();
-        if (carBloodEffect != null) carBloodEffect.dispose();
+        if (particleSystem != null) particleSystem.dispose();
         if (player != null) player.dispose();
+        if (enemyPool != null) enemyPool.dispose();
         if (batch != null) batch.dispose();
         if (gameStage != null) gameStage.dispose();
         if (uiStage != null) uiStage.dispose();
         if (gameOverStage != null) gameOverStage.dispose();
         if (missionCompleteStage != null) missionCompleteStage.dispose();
         if (settingsStage != null) settingsStage.dispose();
-        if (map != null) map.dispose();
-        if (mapRenderer != null) mapRenderer.dispose();
+        if (staticLayers != null) staticLayers.dispose();
         if (shapeRenderer != null) shapeRenderer.dispose();
         if (debugRenderer != null) debugRenderer.dispose();
-        if (rifleTexture != null) rifleTexture.dispose();
         if (world != null) world.dispose();
         if (pieMenuManager != null) pieMenuManager.dispose();
         if (soundPlayer != null) {
             soundPlayer.stop();
         }
-        if (assetManager != null) assetManager.dispose();
-        for (Texture texture : textureCache.values()) texture.dispose();
+        // Textures, the map and the sounds belong to the asset service, they stay cached for
+        // the next run until it evicts them
+        if (acquiredAssets != null) assetService.release(acquiredAssets);
+        if (ownsAssetService) assetService.dispose();
     }
 }
\ No newline at end of file
@@ -11,6 +11,8 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Screen;
 import com.badlogic.gdx.backends.android.AndroidApplication;
 import com.badlogic.gdx.backends.android.AndroidApplicationConfiguration;
+import com.sotiris.engine.utils.AssetManifest;
+import com.sotiris.engine.utils.AssetService;
 import games.spooky.gdx.sfx.android.AndroidAudioDurationResolver;
 
 public class MainActivity extends AndroidApplication {
@@ -96,6 +98,8 @@ class GameController extends Game {
 
     private MainMenuScreen mainMenuScreen;
     private DemoScreen demoScreen;
+    // Outlives both screens, a replay finds the previous run's assets still loaded
+    private AssetService assetService;
     private String playerGender = "Male";
     private boolean isDisposed = false;
 
@@ -103,7 +107,8 @@ class GameController extends Game {
     public void create() {
         try {
             Log.d(TAG, "GameController create() called");
-            mainMenuScreen = new MainMenuScreen(this, playerGender);
+            assetService = new AssetService();
+            mainMenuScreen = new MainMenuScreen(this, playerGender, assetService);
             setScreen(mainMenuScreen);
             Log.d(TAG, "Main menu screen set successfully");
         } catch (Exception e) {
@@ -128,7 +133,9 @@ class GameController extends Game {
                 demoScreen = null;
             }
 
-            demoScreen = new DemoScreen(this, playerGender);
+            // Resolve the asset set first, the demo only queues what this mission and character use
+            AssetManifest manifest = AssetManifest.resolve(AssetManifest.DEFAULT_MISSION, playerGender);
+            demoScreen = new DemoScreen(this, manifest, assetService);
             setScreen(demoScreen);
             Log.d(TAG, "Demo screen set successfully");
         } catch (Exception e) {
@@ -164,6 +171,23 @@ class GameController extends Game {
         }
     }
 
+    @Override
+    public void render() {
+        super.render();
+        if (!isDisposed && assetService != null) {
+            assetService.evictIdle();
+        }
+    }
+
+    @Override
+    public void pause() {
+        super.pause();
+        // In the background memory counts more than a fast replay
+        if (assetService != null && getScreen() == mainMenuScreen) {
+            assetService.evictAllIdle();
+        }
+    }
+
     public void handleBackPress() {
         if (isDisposed) return;
 
@@ -191,6 +215,10 @@ class GameController extends Game {
                 demoScreen.dispose();
                 demoScreen = null;
             }
+            if (assetService != null) {
+                assetService.dispose();
+                assetService = null;
+            }
             super.dispose();
             Log.d(TAG, "GameController disposed successfully");
         } catch (Exception e) {
@@ -211,11 +239,11 @@ class MainMenuScreen implements Screen {
     private boolean isDisposed = false;
     private boolean isInitialized = false;
 
-    public MainMenuScreen(GameController controller, String gender) {
+    public MainMenuScreen(GameController controller, String gender, AssetService assetService) {
         this.controller = controller;
         try {
             Log.d(TAG, "Creating MainMenu with gender: " + gender);
-            this.mainMenu = new MainMenu(controller::startDemo, gender);
+            this.mainMenu = new MainMenu(controller::startDemo, gender, assetService);
             // CRITICAL: MainMenu extends ApplicationAdapter, so we must call create()
             this.mainMenu.create();
             Log.d(TAG, "MainMenuScreen created and initialized successfully");
@@ -333,11 +361,11 @@ class DemoScreen implements Screen {
     private boolean isDisposed = false;
     private boolean isCreated = false;
 
-    public DemoScreen(GameController controller, String gender) {
+    public DemoScreen(GameController controller, AssetManifest manifest, AssetService assetService) {
         this.controller = controller;
         try {
-            Log.d(TAG, "Creating Demo with gender: " + gender);
-            this.demo = new Demo(() -> controller.returnToMainMenu(), gender);
+            Log.d(TAG, "Creating Demo for " + manifest.getMissionId() + ", male: " + manifest.isMale());
+            this.demo = new Demo(() -> controller.returnToMainMenu(), manifest, assetService);
             Log.d(TAG, "DemoScreen created successfully");
         } catch (Exception e) {
             Log.e(TAG, "Error creating Demo", e);
@@ -24,6 +24,7 @@ import com.badlogic.gdx.utils.Align;
 import com.badlogic.gdx.utils.viewport.FitViewport;
 import com.badlogic.gdx.InputMultiplexer;
 import com.badlogic.gdx.math.Interpolation;
+import com.sotiris.engine.utils.AssetService;
 
 public class MainMenu extends ApplicationAdapter {
 
@@ -54,13 +55,15 @@ public class MainMenu extends ApplicationAdapter {
 
     // Callback
     private final Runnable onPlaySelected;
+    private final AssetService assetService;
 
     private enum MenuState {
         MAIN, SETTINGS, CREDITS
     }
 
-    public MainMenu(Runnable onPlaySelected, String gender) {
+    public MainMenu(Runnable onPlaySelected, String gender, AssetService assetService) {
         this.onPlaySelected = onPlaySelected;
+        this.assetService = assetService;
         this.Male = gender == null || gender.contains("Male");
     }
 
@@ -103,8 +106,8 @@ public class MainMenu extends ApplicationAdapter {
     private void createSkin() {
         skin = new Skin();
 
-        // Create a basic font
-        BitmapFont font = new BitmapFont();
+        // Same glyphs as the game's skin, scaled on its own metrics
+        BitmapFont font = assetService.newSkinFont();
         font.getData().setScale(1.5f);
         skin.add("default-font", font, BitmapFont.class);
 
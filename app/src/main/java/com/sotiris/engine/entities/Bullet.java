@@ -1,34 +1,48 @@
 package com.sotiris.engine.entities;
 
 import com.badlogic.gdx.assets.AssetManager;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.utils.Align;
+import com.badlogic.gdx.utils.Array;
+import com.sotiris.engine.utils.Atlases;
 import com.sotiris.engine.utils.CollisionManager;
+import com.sotiris.engine.utils.EntityGrid;
 
 public class Bullet extends Actor {
+    // Entities are registered by their centre, search far enough to catch any body the bullet can touch
+    private static final float HIT_SEARCH_RADIUS = 64f;
+
     private boolean isActive;
-    private final Texture bulletTexture;
+    private boolean sweptCollision = true;
+    private final TextureRegion bulletRegion;
     private final Vector2 position;
     private Vector2 velocity;
     private int damage;
     private Actor owner;
     private final CollisionManager collisionManager;
+    private final EntityGrid entityGrid;
     private final BulletPool bulletPool; // Reference to the BulletPool
+    private final Rectangle bulletRect = new Rectangle();
+    private final Array<Rectangle> nearbyRects = new Array<>();
+    private final Array<Actor> nearbyActors = new Array<>();
 
-    public Bullet(float x, float y, Vector2 velocity, int damage, Actor owner, CollisionManager collisionManager, AssetManager assetManager, BulletPool bulletPool) {
-        bulletTexture = assetManager.get("bullet.png", Texture.class);
+    public Bullet(float x, float y, Vector2 velocity, int damage, Actor owner, CollisionManager collisionManager, EntityGrid entityGrid, AssetManager assetManager, BulletPool bulletPool) {
+        bulletRegion = Atlases.findRegion(assetManager.get(Atlases.SPRITES, TextureAtlas.class), "bullet");
         position = new Vector2(x, y);
         this.velocity = velocity;
         this.damage = damage;
         this.owner = owner;
         this.collisionManager = collisionManager;
+        this.entityGrid = entityGrid;
         this.bulletPool = bulletPool; // Assign the bullet pool
 
-        setBounds(position.x, position.y, bulletTexture.getWidth(), bulletTexture.getHeight());
-        setSize(bulletTexture.getWidth(), bulletTexture.getHeight());
+        setBounds(position.x, position.y, bulletRegion.getRegionWidth(), bulletRegion.getRegionHeight());
+        setSize(bulletRegion.getRegionWidth(), bulletRegion.getRegionHeight());
     }
 
     private float calculateRotationAngle() {
@@ -38,41 +52,95 @@ public class Bullet extends Actor {
     @Override
     public void act(float delta) {
         super.act(delta);
+        if (sweptCollision) {
+            actSwept(delta);
+        } else {
+            actDiscrete(delta);
+        }
+    }
+
+    // Moves the bullet and tests a single overlap at the new position
+    private void actDiscrete(float delta) {
         position.add(velocity.x * delta, velocity.y * delta);
         setPosition(position.x, position.y);
 
         // Collision detection
-        Rectangle bulletRect = new Rectangle(getX(), getY(), getWidth(), getHeight());
-
-        for (Actor actor : getStage().getActors()) {
-            if (actor == owner) continue;
-
-            if (actor instanceof Player && !(owner instanceof Player)) {
-                Player player = (Player) actor;
-                if (bulletRect.overlaps(player.getBounds())) {
-                    Vector2 attackDirection = new Vector2(velocity).nor();
-                    player.takeDamage(damage, attackDirection);
-                    bulletPool.freeBullet(this); // Free bullet to the pool
-                    return;
-                }
-            } else if (actor instanceof Enemy && owner instanceof Player) {
-                Enemy enemy = (Enemy) actor;
-                if (bulletRect.overlaps(enemy.getBounds())) {
-                    Vector2 attackDirection = new Vector2(velocity).nor();
-                    enemy.takeDamage(damage, attackDirection);
-                    bulletPool.freeBullet(this); // Free bullet to the pool
-                    return;
-                }
+        bulletRect.set(getX(), getY(), getWidth(), getHeight());
+
+        float searchRadius = HIT_SEARCH_RADIUS + Math.max(getWidth(), getHeight());
+        entityGrid.queryRadius(getX(Align.center), getY(Align.center), searchRadius, nearbyActors);
+        for (Actor actor : nearbyActors) {
+            if (!isTarget(actor)) continue;
+            if (actor instanceof Player && bulletRect.overlaps(((Player) actor).getBounds())
+                    || actor instanceof Enemy && bulletRect.overlaps(((Enemy) actor).getBounds())) {
+                hit(actor);
+                return;
             }
         }
 
         // Check collision with static objects
-        for (Rectangle rect : collisionManager.getCollisionRectangles()) {
-            if (bulletRect.overlaps(rect)) {
-                bulletPool.freeBullet(this); // Free bullet to the pool
-                return;
+        if (collisionManager.queryRect(bulletRect, nearbyRects) > 0) {
+            bulletPool.freeBullet(this); // Free bullet to the pool
+        }
+    }
+
+    // Casts the path travelled this frame against static geometry and targets and resolves the earliest hit
+    private void actSwept(float delta) {
+        float halfWidth = getWidth() / 2f;
+        float halfHeight = getHeight() / 2f;
+        float startX = position.x + halfWidth;
+        float startY = position.y + halfHeight;
+        float endX = startX + velocity.x * delta;
+        float endY = startY + velocity.y * delta;
+
+        // Rectangles are inflated by the bullet size so the path of its centre is enough
+        float earliest = collisionManager.castSegment(startX, startY, endX, endY, halfWidth, halfHeight);
+        Actor hitActor = null;
+
+        float pathLength = Vector2.len(endX - startX, endY - startY);
+        float searchRadius = HIT_SEARCH_RADIUS + Math.max(getWidth(), getHeight()) + pathLength / 2f;
+        entityGrid.queryRadius((startX + endX) / 2f, (startY + endY) / 2f, searchRadius, nearbyActors);
+        for (Actor actor : nearbyActors) {
+            if (!isTarget(actor)) continue;
+            float fraction = CollisionManager.segmentEntry(startX, startY, endX, endY,
+                    actor.getX() - halfWidth, actor.getY() - halfHeight,
+                    actor.getX() + actor.getWidth() + halfWidth, actor.getY() + actor.getHeight() + halfHeight);
+            if (fraction >= 0 && (earliest < 0 || fraction < earliest)) {
+                earliest = fraction;
+                hitActor = actor;
             }
         }
+
+        if (earliest < 0) {
+            position.add(velocity.x * delta, velocity.y * delta);
+            setPosition(position.x, position.y);
+            return;
+        }
+
+        position.set(startX + (endX - startX) * earliest - halfWidth, startY + (endY - startY) * earliest - halfHeight);
+        setPosition(position.x, position.y);
+        if (hitActor != null) {
+            hit(hitActor);
+        } else {
+            bulletPool.freeBullet(this); // Hit static geometry
+        }
+    }
+
+    // Player bullets only hit enemies, enemy bullets only hit the player
+    private boolean isTarget(Actor actor) {
+        if (actor == owner) return false;
+        if (actor instanceof Player) return !(owner instanceof Player);
+        return actor instanceof Enemy && owner instanceof Player;
+    }
+
+    private void hit(Actor actor) {
+        Vector2 attackDirection = new Vector2(velocity).nor();
+        if (actor instanceof Player) {
+            ((Player) actor).takeDamage(damage, attackDirection);
+        } else {
+            ((Enemy) actor).takeDamage(damage, attackDirection);
+        }
+        bulletPool.freeBullet(this); // Free bullet to the pool
     }
 
     @Override
@@ -80,15 +148,12 @@ public class Bullet extends Actor {
         float rotationAngle = calculateRotationAngle();
 
         batch.draw(
-                bulletTexture,
+                bulletRegion,
                 getX(), getY(),
                 getWidth() / 2f, getHeight() / 2f, // Origin of rotation is the center
                 getWidth(), getHeight(),
                 1f, 1f, // Scaling factors
-                rotationAngle, // Rotation angle in degrees
-                0, 0,
-                bulletTexture.getWidth(), bulletTexture.getHeight(),
-                false, false
+                rotationAngle // Rotation angle in degrees
         );
     }
 
@@ -106,6 +171,10 @@ public class Bullet extends Actor {
         this.damage = damage;
     }
 
+    public void setSweptCollision(boolean sweptCollision) {
+        this.sweptCollision = sweptCollision;
+    }
+
     public void setActive(boolean isActive) {
         this.isActive = isActive;
     }
@@ -6,22 +6,27 @@ import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.utils.Pool;
 import com.sotiris.engine.utils.CollisionManager;
+import com.sotiris.engine.utils.EntityGrid;
 
 public class BulletPool extends Pool<Bullet> {
     private final Stage stage;
     private final AssetManager assetManager;
     private final CollisionManager collisionManager;
+    private final EntityGrid entityGrid;
+    // Swept collision keeps fast bullets from tunnelling through thin rectangles on long frames
+    private boolean sweptCollision = true;
 
-    public BulletPool(Stage stage, AssetManager assetManager, CollisionManager collisionManager) {
+    public BulletPool(Stage stage, AssetManager assetManager, CollisionManager collisionManager, EntityGrid entityGrid) {
         this.stage = stage;
         this.assetManager = assetManager;
         this.collisionManager = collisionManager;
+        this.entityGrid = entityGrid;
     }
 
     @Override
     protected Bullet newObject() {
         // Create a new Bullet object
-        return new Bullet(0, 0, new Vector2(), 0, null, collisionManager, assetManager,this);
+        return new Bullet(0, 0, new Vector2(), 0, null, collisionManager, entityGrid, assetManager, this);
     }
 
     public Bullet obtainBullet(float x, float y, Vector2 velocity, int damage, Actor owner) {
@@ -31,11 +36,16 @@ public class BulletPool extends Pool<Bullet> {
         bullet.setVelocity(velocity);
         bullet.setOwner(owner);
         bullet.setDamage(damage);
+        bullet.setSweptCollision(sweptCollision);
         bullet.setActive(true); // Mark the bullet as active
         stage.addActor(bullet); // Add bullet to the stage so it can be drawn and updated
         return bullet;
     }
 
+    public void setSweptCollision(boolean sweptCollision) {
+        this.sweptCollision = sweptCollision;
+    }
+
     public void freeBullet(Bullet bullet) {
         bullet.remove();
         bullet.setActive(false); // Mark bullet as inactive
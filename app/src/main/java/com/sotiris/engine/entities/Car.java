@@ -2,8 +2,8 @@ package com.sotiris.engine.entities;
 
 import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.physics.box2d.*;
@@ -11,8 +11,10 @@ import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.actions.*;
 import com.badlogic.gdx.scenes.scene2d.ui.Image;
+import com.badlogic.gdx.scenes.scene2d.utils.SpriteDrawable;
 import com.badlogic.gdx.utils.TimeUtils;
 import com.sotiris.engine.Demo;
+import com.sotiris.engine.utils.Atlases;
 import com.sotiris.engine.utils.MoveBodyAction;
 import com.sotiris.engine.utils.MySpatializedSoundPlayer;
 
@@ -33,25 +35,27 @@ public class Car extends Actor {
     private boolean doorsOpen = false;
 
     private long engineSoundId = -1;
-    Texture leftDoorTexture,rightDoorTexture,carTexture;
 
     private <T> T getAssetIfLoaded(AssetManager assetManager, String assetPath, Class<T> type) {
         return assetManager.isLoaded(assetPath, type) ? assetManager.get(assetPath, type) : null;
     }
 
+    // Car sprites are trimmed, an atlas sprite draws them at their original size and offset
+    private static SpriteDrawable carDrawable(TextureAtlas carAtlas, String name) {
+        return carAtlas != null ? new SpriteDrawable(Atlases.createSprite(carAtlas, name)) : null;
+    }
+
     public Car(World world,
                AssetManager assetManager, MySpatializedSoundPlayer<Vector2> soundPlayer) {
         this.soundPlayer = soundPlayer;
 
-        this.carTexture = getAssetIfLoaded(assetManager, "cars/car.png", Texture.class);
-        this.leftDoorTexture = getAssetIfLoaded(assetManager, "cars/left_door.png", Texture.class);
-        this.rightDoorTexture = getAssetIfLoaded(assetManager, "cars/right_door.png", Texture.class);
+        TextureAtlas carAtlas = getAssetIfLoaded(assetManager, Atlases.CARS, TextureAtlas.class);
         this.carHitSound = getAssetIfLoaded(assetManager, "sounds/car_hit.wav", SfxSound.class);
 
 
-        this.carImage = new Image(this.carTexture);
-        this.leftDoorImage = new Image(this.leftDoorTexture);
-        this.rightDoorImage = new Image(this.rightDoorTexture);
+        this.carImage = new Image(carDrawable(carAtlas, "car"));
+        this.leftDoorImage = new Image(carDrawable(carAtlas, "left_door"));
+        this.rightDoorImage = new Image(carDrawable(carAtlas, "right_door"));
 
         carEngineSound = assetManager.isLoaded("sounds/engine.wav")
                 ? assetManager.get("sounds/engine.wav", SfxSound.class)
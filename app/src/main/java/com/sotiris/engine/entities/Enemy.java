@@ -1,39 +1,31 @@
 package com.sotiris.engine.entities;
 
-import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.*;
-import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
-import com.badlogic.gdx.math.Intersector;
-import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.RandomXS128;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.*;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.actions.Actions;
 import com.badlogic.gdx.utils.Array;
+import com.sotiris.engine.utils.BloodEffectBank;
 import com.sotiris.engine.utils.CollisionManager;
-
-import java.util.EnumMap;
-import java.util.Map;
-import java.util.Objects;
-import java.util.concurrent.atomic.AtomicBoolean;
+import com.sotiris.engine.utils.CrowdAvoidance;
+import com.sotiris.engine.utils.EntityGrid;
+import com.sotiris.engine.utils.FlowField;
+import com.sotiris.engine.utils.HealthBarRenderer;
+import com.sotiris.engine.utils.LineOfSightService;
+import com.sotiris.engine.utils.PathService;
 
 public class Enemy extends Actor {
-    private static final float BODY_RADIUS = 38f;
-    private static final float MAX_SPEED = 200f;
-    private static final float FRAME_DURATION = 0.08f;
-    public static final int INITIAL_HEALTH = 120;
-    private static final float HEALTH_REGEN_RATE = 5f;
-    private static final float ATTACK_RANGE = 280f;
-    private static final float STOP_ATTACK_RANGE = 350f;
-    private static final float CHASE_RANGE = 600f;
-    private static final float BULLET_SPEED = 700f;
-    private static final int BULLET_DAMAGE = 3;
-
-    private final AssetManager assetManager;
+    private static final float WAYPOINT_REACHED = 24f;
+    private static final float PLAYER_NEARBY = 50f;
+    private static final Color HEALTH_BAR_BACKGROUND = new Color(0, 0, 0, 0.5f);
+
+    private int id;
+    private final RandomXS128 random = new RandomXS128();
+    private final Decision decision = new Decision();
 
     public enum EnemyState { IDLE, WALK, ATTACK, DEATH }
 
@@ -41,8 +33,18 @@ public class Enemy extends Actor {
     private final Vector2 velocity;
     private final Player player;
     private final CollisionManager collisionManager;
-    private Body body;
-    private final World world;
+    private final EntityGrid entityGrid;
+    private final FlowField flowField;
+    private final PathService pathService;
+    private final LineOfSightService lineOfSight;
+    private final CrowdAvoidance crowdAvoidance;
+    private final LineOfSightService.Query sightQuery = new LineOfSightService.Query();
+    private final Body body;
+    private final EnemyPool pool;
+    // Shared stats and animations of this enemy's type
+    private final EnemyArchetype archetype;
+    // True between obtainEnemy() and remove()
+    private boolean inPlay;
     private Runnable onDeathCallback;
     private EnemyState currentState;
     private int currentDirection;
@@ -57,30 +59,48 @@ public class Enemy extends Actor {
     private final Vector2 lastKnownPlayerPosition;
     private boolean playerInSight;
 
-    private final Map<EnemyState, Animation<TextureRegion>[]> animations;
-    private final ShapeRenderer shapeRenderer = new ShapeRenderer();
-    private final ParticleEffectPool bloodEffectPool;
-    private final Array<ParticleEffectPool.PooledEffect> activeBloodEffects;
+    private final HealthBarRenderer healthBars;
+    private final BloodEffectBank bloodEffects;
     private final BulletPool bulletPool;
-
-    public Enemy(AssetManager assetManager, float x, float y, Player player, CollisionManager collisionManager, World world, BulletPool bulletPool) {
-        this.assetManager = assetManager;
+    private final Rectangle queryArea = new Rectangle();
+    private final Array<Rectangle> nearbyRects = new Array<>();
+    private final Vector2 obstacleGradient = new Vector2();
+    private final Vector2 flowDirection = new Vector2();
+    // Velocity actually moved with: the desired velocity after crowd avoidance
+    private final Vector2 avoidedVelocity = new Vector2();
+    // Shared A* path to the last known player position and this enemy's progress along it
+    private PathService.Path lastKnownPath;
+    private int pathWaypoint;
+
+    Enemy(EnemyPool pool, EnemyArchetype archetype, Player player,
+          CollisionManager collisionManager, World world, BulletPool bulletPool, EntityGrid entityGrid, FlowField flowField, PathService pathService,
+          LineOfSightService lineOfSight, CrowdAvoidance crowdAvoidance, BloodEffectBank bloodEffects,
+          HealthBarRenderer healthBars) {
+        this.pool = pool;
+        this.archetype = archetype;
         this.bulletPool = bulletPool;
-        this.position = new Vector2(x, y);
+        this.position = new Vector2();
         this.velocity = new Vector2();
         this.player = player;
         this.collisionManager = collisionManager;
-        this.world = world;
+        this.entityGrid = entityGrid;
+        this.flowField = flowField;
+        this.pathService = pathService;
+        this.lineOfSight = lineOfSight;
+        this.crowdAvoidance = crowdAvoidance;
+        this.bloodEffects = bloodEffects;
+        this.healthBars = healthBars;
         this.lastKnownPlayerPosition = new Vector2();
         this.playerInSight = false;
 
         BodyDef bodyDef = new BodyDef();
         bodyDef.type = BodyDef.BodyType.DynamicBody;
-        bodyDef.position.set(x, y);
+        // Stays inactive while the enemy waits in the pool
+        bodyDef.active = false;
         this.body = world.createBody(bodyDef);
 
         CircleShape shape = new CircleShape();
-        shape.setRadius(BODY_RADIUS);
+        shape.setRadius(archetype.bodyRadius);
         FixtureDef fixtureDef = new FixtureDef();
         fixtureDef.shape = shape;
         fixtureDef.filter.groupIndex = -1;
@@ -88,45 +108,49 @@ public class Enemy extends Actor {
         shape.dispose();
 
         this.currentState = EnemyState.IDLE;
-        this.currentDirection = 0;
-        this.stateTime = 0f;
-        this.health = INITIAL_HEALTH;
-        this.isDead = false;
-        this.isAttacking = false;
-        this.isMoving = false;
+        this.health = archetype.maxHealth;
         this.previousFrameIndex = -1;
-        this.idleTime = 0f;
-
-        this.animations = new EnumMap<>(EnemyState.class);
-        loadAnimations();
-        ParticleEffect bloodEffectTemplate = new ParticleEffect();
-        bloodEffectTemplate.load(Gdx.files.internal("blood.p"), Gdx.files.internal(""));
-        bloodEffectPool = new ParticleEffectPool(bloodEffectTemplate, 5, 10);
-        activeBloodEffects = new Array<>();
 
-        setSize(BODY_RADIUS * 2, BODY_RADIUS * 2);
-        setPosition(position.x - getWidth() / 2, position.y - getHeight() / 2);
+        setSize(archetype.bodyRadius * 2, archetype.bodyRadius * 2);
     }
 
-    private void loadAnimations() {
-        loadAnimation(EnemyState.IDLE, "enemy/enemy_idle.png");
-        loadAnimation(EnemyState.WALK, "enemy/enemy_walk_gun.png");
-        loadAnimation(EnemyState.ATTACK, "enemy/enemy_shoot.png");
-        loadAnimation(EnemyState.DEATH, "enemy/enemy_death.png");
-    }
+    /**
+     * Brings a pooled enemy back to its spawn state at (x, y) under a new id, which also seeds
+     * its random wander. Called by EnemyPool.obtainEnemy().
+     */
+    void reset(float x, float y, int id) {
+        this.id = id;
+        random.setSeed(id * 0x9E3779B97F4A7C15L + 1L);
+        clearActions();
+        onDeathCallback = null;
+
+        position.set(x, y);
+        velocity.setZero();
+        avoidedVelocity.setZero();
+        lastKnownPlayerPosition.setZero();
+        playerInSight = false;
+        sightQuery.reset();
+        lastKnownPath = null;
+        pathWaypoint = 0;
+        decision.valid = false;
+
+        currentState = EnemyState.IDLE;
+        currentDirection = 0;
+        stateTime = 0f;
+        health = archetype.maxHealth;
+        isDead = false;
+        isAttacking = false;
+        isMoving = false;
+        previousFrameIndex = -1;
+        idleTime = 0f;
+
+        body.setTransform(x, y, 0f);
+        body.setLinearVelocity(0f, 0f);
+        body.setActive(true);
+        inPlay = true;
 
-    @SuppressWarnings("unchecked")
-    private void loadAnimation(EnemyState state, String filename) {
-        Texture sheet = assetManager.get(filename, Texture.class);
-        int frameWidth = sheet.getWidth() / 8;
-        int frameHeight = sheet.getHeight() / 8;
-        TextureRegion[][] tmp = TextureRegion.split(sheet, frameWidth, frameHeight);
-        Animation<TextureRegion>[] directionAnimations = new Animation[8];
-        for (int dir = 0; dir < 8; dir++) {
-            Array<TextureRegion> frames = new Array<>(tmp[dir]);
-            directionAnimations[dir] = new Animation<>(FRAME_DURATION, frames);
-        }
-        animations.put(state, directionAnimations);
+        setPosition(position.x - getWidth() / 2, position.y - getHeight() / 2);
+        entityGrid.update(this, position.x, position.y);
     }
 
     @Override
@@ -136,9 +160,10 @@ public class Enemy extends Actor {
         if (player.isDead()) return;
         stateTime += delta;
 
-        updateState();
-        avoidStacking(delta);
+        // updateState() runs from think(), scheduled by AiScheduler
+        avoidCrowd(delta);
         updatePosition(delta);
+        entityGrid.update(this, position.x, position.y);
         updateDirection();
 
         if (currentState == EnemyState.WALK && !isMoving) {
@@ -156,213 +181,236 @@ public class Enemy extends Actor {
         if (currentState == EnemyState.IDLE) {
             idleTime += delta;
             if (idleTime > 2.0f) {
-                health = Math.min(health + (int) (HEALTH_REGEN_RATE * delta), INITIAL_HEALTH);
+                health = Math.min(health + (int) (archetype.healthRegenRate * delta), archetype.maxHealth);
             }
         } else {
             idleTime = 0f;
         }
+    }
 
-        for (int i = activeBloodEffects.size - 1; i >= 0; i--) {
-            ParticleEffectPool.PooledEffect bloodEffect = activeBloodEffects.get(i);
-            if(!isDead) {
-                bloodEffect.update(delta);
-            } else {
-                activeBloodEffects.removeIndex(i);
-            }
-            if (bloodEffect.isComplete()) {
-                bloodEffect.free();
-                activeBloodEffects.removeIndex(i);
-            }
-        }
+    /**
+     * Outcome of think(), written by the enemy's own think and read back by applyDecision().
+     */
+    private static class Decision {
+        boolean valid;
+        EnemyState state;
+        boolean attacking;
+        boolean moving;
+        boolean resetStateTime;
+        boolean playerInSight;
+        boolean requestPath;
+        int pathWaypoint;
+        final Vector2 velocity = new Vector2();
+        final Vector2 lastKnown = new Vector2();
     }
 
-    private void updateState() {
-        float distanceToPlayer = position.dst(player.getPosition());
-        playerInSight = hasLineOfSight();
+    /**
+     * Decision step: line of sight, state transitions and desired velocity. Only reads shared
+     * state (player position snapshot, collision data, flow field, finished paths and line of
+     * sight answers), so AiScheduler runs it for many enemies in parallel. Nothing is visible
+     * to other objects until applyDecision().
+     */
+    public void think(Vector2 playerPosition) {
+        decision.valid = false;
+        if (isDead || player.isDead()) return;
+
+        decision.state = currentState;
+        decision.attacking = isAttacking;
+        decision.moving = isMoving;
+        decision.resetStateTime = false;
+        decision.requestPath = false;
+        decision.pathWaypoint = pathWaypoint;
+        decision.velocity.set(velocity);
+        decision.lastKnown.set(lastKnownPlayerPosition);
+        updateState(decision, playerPosition);
+        decision.valid = true;
+    }
 
-        if (distanceToPlayer < BODY_RADIUS * 4.5f) {
-            playerInSight = true;
+    /**
+     * Writes the result of the last think() back and files the line of sight and path requests
+     * it asked for. Called on the render thread, in enemy id order.
+     */
+    public void applyDecision() {
+        if (!decision.valid) return;
+        decision.valid = false;
+
+        currentState = decision.state;
+        isAttacking = decision.attacking;
+        isMoving = decision.moving;
+        if (decision.resetStateTime) {
+            stateTime = 0f;
+        }
+        playerInSight = decision.playerInSight;
+        velocity.set(decision.velocity);
+        lastKnownPlayerPosition.set(decision.lastKnown);
+        pathWaypoint = decision.pathWaypoint;
+        if (decision.requestPath) {
+            lastKnownPath = pathService.requestPath(position.x, position.y,
+                    lastKnownPlayerPosition.x, lastKnownPlayerPosition.y);
+            pathWaypoint = 0;
+        }
+        lineOfSight.request(sightQuery, position.x, position.y);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    private void updateState(Decision d, Vector2 playerPosition) {
+        float distanceToPlayer = position.dst(playerPosition);
+        d.playerInSight = sightQuery.isVisible();
+
+        if (distanceToPlayer < archetype.bodyRadius * 4.5f) {
+            d.playerInSight = true;
         }
 
-        if (playerInSight) {
-            lastKnownPlayerPosition.set(player.getPosition());
+        if (d.playerInSight) {
+            d.lastKnown.set(playerPosition);
         }
 
-        switch (currentState) {
+        boolean playerNearby = distanceToPlayer < PLAYER_NEARBY;
+        switch (d.state) {
             case IDLE:
-                if (distanceToPlayer < ATTACK_RANGE && (playerInSight || isPlayerNearby())) {
-                    currentState = EnemyState.ATTACK;
-                    stateTime = 0f;
-                    isAttacking = true;
-                    isMoving = false;
-                    velocity.setZero();
-                } else if (distanceToPlayer < CHASE_RANGE) {
-                    currentState = EnemyState.WALK;
-                    isMoving = true;
-                    moveTowardsPlayer();
+                if (distanceToPlayer < archetype.attackRange && (d.playerInSight || playerNearby)) {
+                    d.state = EnemyState.ATTACK;
+                    d.resetStateTime = true;
+                    d.attacking = true;
+                    d.moving = false;
+                    d.velocity.setZero();
+                } else if (distanceToPlayer < archetype.chaseRange) {
+                    d.state = EnemyState.WALK;
+                    d.moving = true;
+                    moveTowardsPlayer(playerPosition, d.velocity);
                 } else {
-                    randomWander();
+                    randomWander(d.velocity);
                 }
                 break;
 
             case WALK:
-                if (distanceToPlayer < ATTACK_RANGE && (playerInSight || isPlayerNearby())) {
-                    currentState = EnemyState.ATTACK;
-                    stateTime = 0f;
-                    isAttacking = true;
-                    isMoving = false;
-                    velocity.setZero();
-                } else if (distanceToPlayer > CHASE_RANGE) {
-                    currentState = EnemyState.IDLE;
-                    isMoving = false;
-                    velocity.setZero();
-                } else if (!playerInSight) {
-                    moveTowardsLastKnownPosition();
+                if (distanceToPlayer < archetype.attackRange && (d.playerInSight || playerNearby)) {
+                    d.state = EnemyState.ATTACK;
+                    d.resetStateTime = true;
+                    d.attacking = true;
+                    d.moving = false;
+                    d.velocity.setZero();
+                } else if (distanceToPlayer > archetype.chaseRange) {
+                    d.state = EnemyState.IDLE;
+                    d.moving = false;
+                    d.velocity.setZero();
+                } else if (!d.playerInSight) {
+                    moveTowardsLastKnownPosition(d);
                 } else {
-                    moveTowardsPlayer();
-                    if (!isMoving) {
-                        randomWander();
+                    moveTowardsPlayer(playerPosition, d.velocity);
+                    if (!d.moving) {
+                        randomWander(d.velocity);
                     }
                 }
                 break;
 
             case ATTACK:
                 // FORCE the enemy to stay still while attacking
-                isMoving = false;
-                velocity.setZero();
+                d.moving = false;
+                d.velocity.setZero();
 
-                if (!isAttacking) {
-                    isAttacking = true;
-                    stateTime = 0f;
+                if (!d.attacking) {
+                    d.attacking = true;
+                    d.resetStateTime = true;
                 }
-                if (distanceToPlayer > STOP_ATTACK_RANGE || (!playerInSight && !isPlayerNearby())) {
-                    currentState = EnemyState.WALK;
-                    isMoving = true;
-                    if (!playerInSight) {
-                        moveTowardsLastKnownPosition();
+                if (distanceToPlayer > archetype.stopAttackRange || (!d.playerInSight && !playerNearby)) {
+                    d.state = EnemyState.WALK;
+                    d.moving = true;
+                    if (!d.playerInSight) {
+                        moveTowardsLastKnownPosition(d);
                     } else {
-                        moveTowardsPlayer();
+                        moveTowardsPlayer(playerPosition, d.velocity);
                     }
                 }
                 break;
 
             case DEATH:
                 // Stay completely still when dead
-                isMoving = false;
-                velocity.setZero();
+                d.moving = false;
+                d.velocity.setZero();
                 break;
         }
     }
 
-    private void moveTowardsLastKnownPosition() {
-        if (lastKnownPlayerPosition.isZero()) {
+    private void moveTowardsLastKnownPosition(Decision d) {
+        if (d.lastKnown.isZero()) {
             return;
         }
 
-        Vector2 toLastKnown = lastKnownPlayerPosition.cpy().sub(position).nor();
+        Vector2 toLastKnown = nextWaypointToLastKnown(d).cpy().sub(position).nor();
         Vector2 avoidance = obstacleAvoidance();
 
-        Vector2 desiredVelocity = toLastKnown.scl(1.0f).add(avoidance.scl(0.5f)).nor().scl(MAX_SPEED);
-        velocity.set(desiredVelocity);
+        Vector2 desiredVelocity = toLastKnown.scl(1.0f).add(avoidance.scl(0.5f)).nor().scl(archetype.maxSpeed);
+        d.velocity.set(desiredVelocity);
 
-        if (position.dst(lastKnownPlayerPosition) < 10f) {
-            velocity.setZero();
-            isMoving = false;
+        if (position.dst(d.lastKnown) < 10f) {
+            d.velocity.setZero();
+            d.moving = false;
         }
     }
 
-    private boolean hasLineOfSight() {
-        Vector2 enemyPos = position.cpy().add(0.1f, 0.1f);
-        Vector2 playerPos = player.getPosition().cpy().add(-0.1f, -0.1f);
-
-        AtomicBoolean isBlockedByRaycast = new AtomicBoolean(false);
-        boolean isBlockedByCollisionManager = false;
-
-        world.rayCast((fixture, point, normal, fraction) -> {
-            if (fixture.getUserData() instanceof Rectangle) {
-                isBlockedByRaycast.set(true);
-                return 0;
-            }
-            return -1;
-        }, enemyPos, playerPos);
-
-        for (Rectangle obstacle : collisionManager.getCollisionRectangles()) {
-            if (Intersector.intersectSegmentRectangle(enemyPos, playerPos, obstacle)) {
-                float bufferZone = 20f;
-                Rectangle expandedObstacle = new Rectangle(obstacle.x - bufferZone, obstacle.y - bufferZone, obstacle.width + 2 * bufferZone, obstacle.height + 2 * bufferZone);
-
-                if (Intersector.intersectSegmentRectangle(enemyPos, playerPos, expandedObstacle)) {
-                    isBlockedByCollisionManager = true;
-                    break;
-                }
-            }
+    private Vector2 nextWaypointToLastKnown(Decision d) {
+        int goalIndex = pathService.getGoalIndex(d.lastKnown.x, d.lastKnown.y);
+        // A path from before the last graph rebuild may cross obstacles added since, ask again
+        if (lastKnownPath == null || lastKnownPath.getGoalIndex() != goalIndex || !pathService.isCurrent(lastKnownPath)) {
+            // The path cache is not thread safe, the request is filed from applyDecision()
+            d.requestPath = true;
+            return d.lastKnown;
         }
 
-        return !(isBlockedByRaycast.get() || isBlockedByCollisionManager);
+        // Head straight for the spot while the search is queued or when there is no path
+        if (!lastKnownPath.isFound()) {
+            return d.lastKnown;
+        }
+        Array<Vector2> waypoints = lastKnownPath.getWaypoints();
+        while (d.pathWaypoint < waypoints.size && position.dst(waypoints.get(d.pathWaypoint)) < WAYPOINT_REACHED) {
+            d.pathWaypoint++;
+        }
+        return d.pathWaypoint < waypoints.size - 1 ? waypoints.get(d.pathWaypoint) : d.lastKnown;
     }
 
-    private boolean isPlayerNearby() {
-        float nearbyDistance = 50f;
-        return position.dst(player.getPosition()) < nearbyDistance;
+    // Answer of the last batch, the fresh query is resolved after this frame's update
+    private boolean hasLineOfSight() {
+        lineOfSight.request(sightQuery, position.x, position.y);
+        return sightQuery.isVisible();
     }
 
-    private void randomWander() {
-        float wanderRadius = 200f;
-        float wanderDistance = MathUtils.random(50f, wanderRadius);
-        float wanderAngle = MathUtils.random(0, 360);
-
-        Vector2 wanderTarget = position.cpy().add(new Vector2(wanderDistance, 0).rotateDeg(wanderAngle));
-        velocity.set(wanderTarget.cpy().sub(position).nor().scl(MAX_SPEED * 0.2f));
+    // Seeded per enemy so the outcome does not depend on which thread thinks first
+    private void randomWander(Vector2 out) {
+        out.set(archetype.maxSpeed * 0.2f, 0f).rotateDeg(random.nextFloat() * 360f);
     }
 
-    private void moveTowardsPlayer() {
-        Vector2 toPlayer = player.getPosition().cpy().sub(position).nor();
+    private void moveTowardsPlayer(Vector2 playerPosition, Vector2 out) {
+        // Follow the shared flow field around obstacles, straight at the player once on their tile
+        if (!flowField.getDirection(position.x, position.y, flowDirection)) {
+            flowDirection.set(playerPosition).sub(position).nor();
+        }
+        Vector2 toPlayer = flowDirection.cpy();
         Vector2 avoidance = obstacleAvoidance();
 
-        Vector2 desiredVelocity = toPlayer.scl(1.0f).add(avoidance.scl(0.5f)).nor().scl(MAX_SPEED);
-        velocity.set(desiredVelocity);
+        Vector2 desiredVelocity = toPlayer.scl(1.0f).add(avoidance.scl(0.5f)).nor().scl(archetype.maxSpeed);
+        out.set(desiredVelocity);
     }
 
     private Vector2 obstacleAvoidance() {
         Vector2 avoidanceForce = new Vector2();
+        float avoidanceRadius = archetype.bodyRadius + 50f;
 
-        for (Rectangle obstacle : collisionManager.getCollisionRectangles()) {
-            float distance = getDistanceToObstacle(obstacle);
-            float avoidanceRadius = BODY_RADIUS + 50f;
-
-            if (distance < avoidanceRadius) {
-                Vector2 obstacleCenter = new Vector2(obstacle.x + obstacle.width / 2, obstacle.y + obstacle.height / 2);
-                Vector2 awayFromObstacle = position.cpy().sub(obstacleCenter).nor();
-                float strength = (avoidanceRadius - distance) / avoidanceRadius;
-                avoidanceForce.add(awayFromObstacle.scl(strength));
-            }
-        }
-
-        for (Actor actor : getStage().getActors()) {
-            if (actor instanceof Enemy && actor != this) {
-                Enemy otherEnemy = (Enemy) actor;
-                float distance = position.dst(otherEnemy.getPosition());
-                float separationDistance = BODY_RADIUS * 3.5f;
-
-                if (distance < separationDistance && distance > 0) {
-                    Vector2 repulsion = position.cpy().sub(otherEnemy.getPosition()).nor()
-                            .scl((separationDistance - distance) * 0.6f);
-                    avoidanceForce.add(repulsion);
-                }
-            }
+        // One lookup into the precomputed distance field instead of a pass over nearby rectangles
+        float distance = collisionManager.sampleDistance(position.x, position.y, obstacleGradient);
+        if (distance < avoidanceRadius && !obstacleGradient.isZero()) {
+            float strength = Math.min((avoidanceRadius - distance) / avoidanceRadius, 2f);
+            avoidanceForce.add(obstacleGradient.nor().scl(strength));
         }
 
         return avoidanceForce;
     }
 
-    private float getDistanceToObstacle(Rectangle obstacle) {
-        float closestX = Math.max(obstacle.x, Math.min(position.x, obstacle.x + obstacle.width));
-        float closestY = Math.max(obstacle.y, Math.min(position.y, obstacle.y + obstacle.height));
-        return position.dst(closestX, closestY);
-    }
-
     private void handleAttackAnimation() {
-        Animation<TextureRegion> attackAnimation = Objects.requireNonNull(animations.get(EnemyState.ATTACK))[currentDirection];
+        Animation<TextureRegion> attackAnimation = archetype.getAnimations(EnemyState.ATTACK)[currentDirection];
         float frameDuration = attackAnimation.getFrameDuration();
         int frameIndex = (int) (stateTime / frameDuration);
 
@@ -378,13 +426,13 @@ public class Enemy extends Actor {
 
         if (attackAnimation.isAnimationFinished(stateTime)) {
             isAttacking = false;
-            if (position.dst(player.getPosition()) < STOP_ATTACK_RANGE && hasLineOfSight()) {
+            if (position.dst(player.getPosition()) < archetype.stopAttackRange && hasLineOfSight()) {
                 stateTime = 0f;
                 isAttacking = true;
             } else {
                 currentState = EnemyState.WALK;
                 isMoving = true;
-                moveTowardsPlayer();
+                moveTowardsPlayer(player.getPosition(), velocity);
             }
         }
     }
@@ -427,7 +475,7 @@ public class Enemy extends Actor {
 
     private void updatePosition(float delta) {
         if (isMoving) {
-            Vector2 movement = velocity.cpy().scl(delta);
+            Vector2 movement = avoidedVelocity.cpy().scl(delta);
             Vector2 newPosition = position.cpy().add(movement);
 
             if (!isColliding(newPosition)) {
@@ -442,34 +490,18 @@ public class Enemy extends Actor {
     }
 
     private boolean isColliding(Vector2 newPosition) {
-        Rectangle enemyRect = new Rectangle(newPosition.x - BODY_RADIUS, newPosition.y - BODY_RADIUS, BODY_RADIUS * 2, BODY_RADIUS * 2);
-        for (Rectangle rect : collisionManager.getCollisionRectangles()) {
-            if (rect.overlaps(enemyRect)) {
-                return true;
-            }
-        }
-        return false;
+        float radius = archetype.bodyRadius;
+        queryArea.set(newPosition.x - radius, newPosition.y - radius, radius * 2, radius * 2);
+        return collisionManager.queryRect(queryArea, nearbyRects) > 0;
     }
 
-    private void avoidStacking(float delta) {
-        if (getStage() == null) {
+    private void avoidCrowd(float delta) {
+        if (!isMoving || getStage() == null || delta <= 0f) {
+            avoidedVelocity.setZero();
             return;
         }
-
-        for (Actor actor : getStage().getActors()) {
-            if (actor instanceof Enemy && actor != this) {
-                Enemy otherEnemy = (Enemy) actor;
-                float distance = position.dst(otherEnemy.getPosition());
-                float minDistance = BODY_RADIUS * 2.5f;
-
-                if (distance < minDistance && distance > 0) {
-                    Vector2 repulsion = position.cpy().sub(otherEnemy.getPosition()).nor();
-                    float repulsionStrength = MathUtils.clamp((minDistance - distance) * 0.3f, 0f, 0.5f);
-                    repulsion.scl(repulsionStrength);
-                    velocity.add(repulsion.scl(delta));
-                }
-            }
-        }
+        crowdAvoidance.computeVelocity(this, position.x, position.y, avoidedVelocity, velocity,
+                archetype.avoidanceRadius, archetype.maxSpeed, delta, avoidedVelocity);
     }
 
     private void shoot() {
@@ -478,8 +510,8 @@ public class Enemy extends Actor {
             Bullet bullet = bulletPool.obtainBullet(
                     position.x,
                     position.y,
-                    direction.scl(BULLET_SPEED),
-                    BULLET_DAMAGE,
+                    direction.scl(archetype.bulletSpeed),
+                    archetype.bulletDamage,
                     this
             );
             if (getStage() != null) {
@@ -488,126 +520,11 @@ public class Enemy extends Actor {
         }
     }
 
-    private void enhanceBloodEffect(ParticleEffectPool.PooledEffect effect) {
-        Array<ParticleEmitter> emitters = new Array<>(effect.getEmitters());
-        for (ParticleEmitter emitter : emitters) {
-            boolean isSplash = MathUtils.randomBoolean(0.7f);
-
-            if (isSplash) {
-                emitter.getEmission().setHigh(50f, 90f);
-                emitter.getEmission().setLow(25f, 50f);
-            } else {
-                emitter.getEmission().setHigh(50f, 100f);
-                emitter.getEmission().setLow(0f);
-            }
-
-            emitter.getLife().setHigh(200f, 250f);
-            emitter.getLife().setLow(50f, 150f);
-
-            if (isSplash) {
-                emitter.getSpawnWidth().setHigh(3f, 13f);
-                emitter.getSpawnHeight().setHigh(3f, 13f);
-            } else {
-                emitter.getSpawnWidth().setHigh(1f, 1f);
-                emitter.getSpawnHeight().setHigh(1f, 1f);
-            }
-
-            if (isSplash) {
-                emitter.getXScale().setHigh(1.5f, 2.5f);
-                emitter.getYScale().setHigh(2f, 3.5f);
-            } else {
-                emitter.getXScale().setHigh(1.5f, 1.5f);
-                emitter.getYScale().setHigh(2f, 2f);
-            }
-
-            if (isSplash) {
-                emitter.getVelocity().setHigh(12f, 35f);
-            } else {
-                emitter.getVelocity().setHigh(15f, 20f);
-                emitter.getVelocity().setLow(0f);
-            }
-
-            if (isSplash) {
-                emitter.getAngle().setHigh(31f, 180f);
-            } else {
-                emitter.getAngle().setHigh(91f, 93f);
-            }
-
-            if (isSplash) {
-                emitter.getRotation().setHigh(0f, 130f);
-            } else {
-                emitter.getRotation().setActive(false);
-            }
-
-            if (isSplash) {
-                emitter.getGravity().setHigh(-50f, -150f);
-            } else {
-                emitter.getGravity().setHigh(-50f, -75f);
-            }
-
-            float rStart = MathUtils.random(0.8f, 1f);
-            float rEnd = MathUtils.random(0.4f, 0.7f);
-
-            emitter.getTint().setColors(new float[]{
-                    rStart, 0f, 0f, 1f,
-                    rEnd, 0f, 0f, 0.7f
-            });
-            emitter.getTint().setTimeline(new float[]{0f, 1f});
-
-            emitter.getTransparency().setHigh(1f);
-            emitter.getTransparency().setLow(0.7f);
-
-            if (isSplash) {
-                emitter.getWind().setActive(true);
-                emitter.getWind().setHigh(MathUtils.random(-20f, 20f));
-                emitter.getWind().setLow(MathUtils.random(-10f, 10f));
-            } else {
-                emitter.getWind().setActive(false);
-            }
-
-            if (isSplash) {
-                emitter.setMaxParticleCount(MathUtils.random(25, 100));
-            } else {
-                emitter.setMaxParticleCount(MathUtils.random(5, 20));
-            }
-
-            emitter.setAdditive(false);
-            emitter.setBehind(true);
-            emitter.setAligned(isSplash);
-            emitter.setPremultipliedAlpha(false);
-            emitter.setSpriteMode(ParticleEmitter.SpriteMode.random);
-        }
-
-        effect.setPosition(this.getPosition().x, this.getPosition().y);
-
-        float offsetX = MathUtils.random(-5f, 5f);
-        float offsetY = MathUtils.random(-5f, 5f);
-        effect.setPosition(
-                this.getPosition().x + offsetX,
-                this.getPosition().y + offsetY
-        );
-
-        effect.scaleEffect(MathUtils.random(0.8f, 1.2f));
-    }
-
-    private void setBloodDirection(ParticleEffectPool.PooledEffect effect, Vector2 attackDirection) {
-        attackDirection.nor();
-        for (ParticleEmitter emitter : effect.getEmitters()) {
-            emitter.getAngle().setHigh(attackDirection.angleDeg());
-            emitter.getAngle().setLow(attackDirection.angleDeg());
-        }
-    }
-
     public void takeDamage(int damage, Vector2 attackDirection) {
         if (isDead) return;
         health -= damage;
 
-        ParticleEffectPool.PooledEffect newBloodEffect = bloodEffectPool.obtain();
-        enhanceBloodEffect(newBloodEffect);
-        setBloodDirection(newBloodEffect, attackDirection);
-        newBloodEffect.setPosition(getX() + getWidth() / 2, getY() + getHeight() / 2);
-        newBloodEffect.start();
-        activeBloodEffects.add(newBloodEffect);
+        bloodEffects.spawn(getX() + getWidth() / 2, getY() + getHeight() / 2, attackDirection);
 
         if (health <= 0) {
             die();
@@ -623,11 +540,8 @@ public class Enemy extends Actor {
         currentState = EnemyState.DEATH;
         stateTime = 0f;
 
-        // IMMEDIATELY destroy the physics body so no more collisions
-        if (body != null) {
-            world.destroyBody(body);
-            body = null;
-        }
+        // IMMEDIATELY deactivate the physics body so no more collisions, it is reused on the next spawn
+        body.setActive(false);
 
         // Call the death callback immediately
         if (onDeathCallback != null) {
@@ -645,7 +559,7 @@ public class Enemy extends Actor {
     public void draw(Batch batch, float parentAlpha) {
         if (!isVisible()) return;
 
-        Animation<TextureRegion>[] stateAnimations = animations.get(currentState);
+        Animation<TextureRegion>[] stateAnimations = archetype.getAnimations(currentState);
         if (stateAnimations == null) return;
 
         Animation<TextureRegion> animation = stateAnimations[currentDirection];
@@ -664,75 +578,46 @@ public class Enemy extends Actor {
         currentFrame = animation.getKeyFrame(stateTime, true);
         batch.draw(currentFrame, getX(), getY(), getWidth(), getHeight());
 
-        // Draw health bar (only when alive)
-        if (!isDead) {
-            drawHealthBar(batch);
-        }
-
-        // Draw blood effects
-        for (ParticleEffectPool.PooledEffect bloodEffect : activeBloodEffects) {
-            bloodEffect.draw(batch);
-        }
-    }
-
-    private void drawHealthBar(Batch batch) {
-        if(health < 0) {
-            return;
+        // Queue the health bar (only when alive), drawn after the stage with all the others
+        if (!isDead && health >= 0) {
+            healthBars.add(getX() + getWidth() * 0.05f, getY() + getHeight() + 4, getWidth() * 0.9f, 4,
+                    (float) health / archetype.maxHealth, HEALTH_BAR_BACKGROUND, Color.RED);
         }
-
-        batch.end();
-
-        float healthBarWidth = getWidth() * 0.9f;
-        float healthBarHeight = 4;
-
-        float healthPercentage = (float) health / INITIAL_HEALTH;
-        float currentHealthBarWidth = healthBarWidth * healthPercentage;
-
-        float healthBarX = getX() + (getWidth() * 0.05f);
-        float healthBarY = getY() + getHeight() + 4;
-
-        shapeRenderer.setProjectionMatrix(batch.getProjectionMatrix());
-
-        shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
-        shapeRenderer.setColor(new Color(0, 0, 0, 0.5f));
-        shapeRenderer.rect(healthBarX, healthBarY, healthBarWidth, healthBarHeight);
-        shapeRenderer.end();
-
-        shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
-        shapeRenderer.setColor(Color.RED);
-        shapeRenderer.rect(healthBarX, healthBarY, currentHealthBarWidth, healthBarHeight);
-        shapeRenderer.end();
-
-        shapeRenderer.begin(ShapeRenderer.ShapeType.Line);
-        shapeRenderer.setColor(Color.BLACK);
-        shapeRenderer.rect(healthBarX, healthBarY, healthBarWidth, healthBarHeight);
-        shapeRenderer.end();
-
-        batch.begin();
     }
 
     @Override
     public boolean remove() {
-        if (body != null && !isDead) {
-            try {
-                world.destroyBody(body);
-            } catch (Exception e) {
-                // Body already destroyed, ignore
-            }
-        }
+        boolean removed = super.remove();
+        if (!inPlay) return removed;
+        inPlay = false;
+
+        body.setActive(false);
+        entityGrid.remove(this);
+        pool.freeEnemy(this);
+        return removed;
+    }
 
-        shapeRenderer.dispose();
+    public Vector2 getPosition() {
+        return position.cpy();
+    }
 
-        for (ParticleEffectPool.PooledEffect effect : activeBloodEffects) {
-            effect.free();
-        }
-        bloodEffectPool.clear();
+    public boolean isDead() {
+        return isDead;
+    }
 
-        return super.remove();
+    /**
+     * Writes the velocity the enemy is currently moving with into out, zero when standing.
+     */
+    public void getVelocity(Vector2 out) {
+        if (isMoving) {
+            out.set(avoidedVelocity);
+        } else {
+            out.setZero();
+        }
     }
 
-    public Vector2 getPosition() {
-        return position.cpy();
+    public float getAvoidanceRadius() {
+        return archetype.avoidanceRadius;
     }
 
     public Rectangle getBounds() {
@@ -0,0 +1,74 @@
+package com.sotiris.engine.entities;
+
+import com.badlogic.gdx.graphics.g2d.Animation;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Array;
+import com.sotiris.engine.utils.Atlases;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * EnemyArchetype holds the data shared by every enemy of one type: stats, ranges and the
+ * eight-direction animations. Built once by EnemyArchetypeRegistry, enemies only keep a
+ * reference to it and must not modify it.
+ */
+public class EnemyArchetype {
+    private static final int DIRECTIONS = 8;
+
+    public final String name;
+    public final float bodyRadius;
+    // Personal space kept from other enemies by the crowd avoidance
+    public final float avoidanceRadius;
+    public final float maxSpeed;
+    public final int maxHealth;
+    public final float healthRegenRate;
+    public final float attackRange;
+    public final float stopAttackRange;
+    public final float chaseRange;
+    public final float bulletSpeed;
+    public final int bulletDamage;
+
+    private final Map<Enemy.EnemyState, Animation<TextureRegion>[]> animations = new EnumMap<>(Enemy.EnemyState.class);
+
+    public EnemyArchetype(String name, float bodyRadius, float maxSpeed, int maxHealth, float healthRegenRate,
+                          float attackRange, float stopAttackRange, float chaseRange,
+                          float bulletSpeed, int bulletDamage) {
+        this.name = name;
+        this.bodyRadius = bodyRadius;
+        this.avoidanceRadius = bodyRadius * 1.25f;
+        this.maxSpeed = maxSpeed;
+        this.maxHealth = maxHealth;
+        this.healthRegenRate = healthRegenRate;
+        this.attackRange = attackRange;
+        this.stopAttackRange = stopAttackRange;
+        this.chaseRange = chaseRange;
+        this.bulletSpeed = bulletSpeed;
+        this.bulletDamage = bulletDamage;
+    }
+
+    /**
+     * Splits an 8x8 sheet (one row per direction), packed whole in the atlas, into the
+     * animations of a state.
+     */
+    @SuppressWarnings("unchecked")
+    EnemyArchetype withAnimation(Enemy.EnemyState state, TextureAtlas atlas, String regionName,
+                                 float frameDuration) {
+        TextureRegion sheet = Atlases.findRegion(atlas, regionName);
+        int frameWidth = sheet.getRegionWidth() / DIRECTIONS;
+        int frameHeight = sheet.getRegionHeight() / DIRECTIONS;
+        TextureRegion[][] tmp = sheet.split(frameWidth, frameHeight);
+        Animation<TextureRegion>[] directionAnimations = new Animation[DIRECTIONS];
+        for (int dir = 0; dir < DIRECTIONS; dir++) {
+            Array<TextureRegion> frames = new Array<>(tmp[dir]);
+            directionAnimations[dir] = new Animation<>(frameDuration, frames);
+        }
+        animations.put(state, directionAnimations);
+        return this;
+    }
+
+    public Animation<TextureRegion>[] getAnimations(Enemy.EnemyState state) {
+        return animations.get(state);
+    }
+}
@@ -0,0 +1,40 @@
+package com.sotiris.engine.entities;
+
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.sotiris.engine.utils.Atlases;
+
+/**
+ * EnemyArchetypeRegistry builds every enemy archetype once per mission from loaded assets.
+ * New enemy variants are added here with their own stats and sheets.
+ */
+public class EnemyArchetypeRegistry {
+    public static final String GUNMAN = "gunman";
+
+    private static final float FRAME_DURATION = 0.08f;
+
+    private final ObjectMap<String, EnemyArchetype> archetypes = new ObjectMap<>();
+
+    public EnemyArchetypeRegistry(AssetManager assetManager) {
+        TextureAtlas atlas = assetManager.get(Atlases.ENEMY, TextureAtlas.class);
+        register(new EnemyArchetype(GUNMAN, 38f, 200f, 120, 5f, 280f, 350f, 600f, 700f, 3)
+                .withAnimation(Enemy.EnemyState.IDLE, atlas, "enemy_idle", FRAME_DURATION)
+                .withAnimation(Enemy.EnemyState.WALK, atlas, "enemy_walk_gun", FRAME_DURATION)
+                .withAnimation(Enemy.EnemyState.ATTACK, atlas, "enemy_shoot", FRAME_DURATION)
+                .withAnimation(Enemy.EnemyState.DEATH, atlas, "enemy_death", FRAME_DURATION));
+    }
+
+    public void register(EnemyArchetype archetype) {
+        archetypes.put(archetype.name, archetype);
+    }
+
+    public EnemyArchetype get(String name) {
+        EnemyArchetype archetype = archetypes.get(name);
+        if (archetype == null) {
+            throw new GdxRuntimeException("Unknown enemy archetype: " + name);
+        }
+        return archetype;
+    }
+}
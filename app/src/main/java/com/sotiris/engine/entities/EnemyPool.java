@@ -0,0 +1,116 @@
+package com.sotiris.engine.entities;
+
+import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Pool;
+import com.sotiris.engine.utils.AiScheduler;
+import com.sotiris.engine.utils.BloodEffectBank;
+import com.sotiris.engine.utils.CollisionManager;
+import com.sotiris.engine.utils.CrowdAvoidance;
+import com.sotiris.engine.utils.EntityGrid;
+import com.sotiris.engine.utils.FlowField;
+import com.sotiris.engine.utils.HealthBarRenderer;
+import com.sotiris.engine.utils.LineOfSightService;
+import com.sotiris.engine.utils.PathService;
+
+/**
+ * EnemyPool keeps enemies of one archetype, with their Box2D body, alive between waves.
+ * A freed enemy only has its body deactivated, obtainEnemy() resets it in
+ * place, so a spawn does no file I/O and creates no GL objects.
+ */
+public class EnemyPool extends Pool<Enemy> {
+    private final Stage stage;
+    private final EnemyArchetype archetype;
+    private final Player player;
+    private final CollisionManager collisionManager;
+    private final World world;
+    private final BulletPool bulletPool;
+    private final EntityGrid entityGrid;
+    private final FlowField flowField;
+    private final PathService pathService;
+    private final LineOfSightService lineOfSight;
+    private final CrowdAvoidance crowdAvoidance;
+    private final BloodEffectBank bloodEffects;
+    private final HealthBarRenderer healthBars;
+    private final AiScheduler aiScheduler;
+
+    private final Array<Enemy> active = new Array<>();
+    // Spawn order within the mission, so ids and wander seeds repeat on every restart
+    private int nextId;
+
+    public EnemyPool(Stage stage, EnemyArchetype archetype, Player player,
+                     CollisionManager collisionManager, World world, BulletPool bulletPool, EntityGrid entityGrid, FlowField flowField,
+                     PathService pathService, LineOfSightService lineOfSight, CrowdAvoidance crowdAvoidance,
+                     BloodEffectBank bloodEffects, HealthBarRenderer healthBars, AiScheduler aiScheduler) {
+        this.stage = stage;
+        this.archetype = archetype;
+        this.player = player;
+        this.collisionManager = collisionManager;
+        this.world = world;
+        this.bulletPool = bulletPool;
+        this.entityGrid = entityGrid;
+        this.flowField = flowField;
+        this.pathService = pathService;
+        this.lineOfSight = lineOfSight;
+        this.crowdAvoidance = crowdAvoidance;
+        this.bloodEffects = bloodEffects;
+        this.healthBars = healthBars;
+        this.aiScheduler = aiScheduler;
+    }
+
+    @Override
+    protected Enemy newObject() {
+        Enemy enemy = new Enemy(this, archetype, player, collisionManager, world, bulletPool,
+                entityGrid, flowField, pathService, lineOfSight, crowdAvoidance, bloodEffects, healthBars);
+        return enemy;
+    }
+
+    /**
+     * Takes an enemy from the pool, resets it at (x, y), puts it on the stage and hands it to
+     * the AI scheduler.
+     */
+    public Enemy obtainEnemy(float x, float y) {
+        Enemy enemy = obtain();
+        enemy.reset(x, y, nextId++);
+        active.add(enemy);
+        stage.addActor(enemy);
+        aiScheduler.add(enemy);
+        return enemy;
+    }
+
+    // Called from Enemy.remove()
+    void freeEnemy(Enemy enemy) {
+        if (active.removeValue(enemy, true)) {
+            free(enemy);
+        }
+    }
+
+    /**
+     * Returns every enemy in play to the pool, including ones detached by Stage.clear(), and
+     * restarts the id sequence for the next mission.
+     */
+    public void freeAll() {
+        for (int i = active.size - 1; i >= 0; i--) {
+            active.get(i).remove();
+        }
+        nextId = 0;
+    }
+
+    public int getActiveCount() {
+        return active.size;
+    }
+
+    @Override
+    protected void reset(Enemy enemy) {
+        // State is reset on obtain, a freed enemy keeps its resources for the next spawn
+    }
+
+    /**
+     * Drops every pooled enemy. Enemies own no GL resources, their bodies go with the World.
+     */
+    public void dispose() {
+        active.clear();
+        clear();
+    }
+}
@@ -1,19 +1,20 @@
 package com.sotiris.engine.entities;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.*;
-import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
-import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.*;
 import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.utils.Align;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Timer;
+import com.sotiris.engine.utils.Atlases;
+import com.sotiris.engine.utils.BloodEffectBank;
 import com.sotiris.engine.utils.CollisionManager;
+import com.sotiris.engine.utils.EntityGrid;
+import com.sotiris.engine.utils.HealthBarRenderer;
 
 import java.util.EnumMap;
 import java.util.Map;
@@ -40,12 +41,6 @@ public class Player extends Actor {
         stateTime = 0f;
         currentDirection = 0;
 
-        // Clear blood effects
-        for (ParticleEffectPool.PooledEffect effect : activeBloodEffects) {
-            effect.free();
-        }
-        activeBloodEffects.clear();
-
         // Clear animation progress
         previousFrameIndex = -1;
         timeSinceLastShot = 0f;
@@ -57,6 +52,8 @@ public class Player extends Actor {
     private static final float FRAME_DURATION = 0.13f;
     private static final int INITIAL_HEALTH = 1000;//500;
     private static final float BODY_RADIUS = 38f;
+    private static final Color HEALTH_BAR_BACKGROUND = new Color(0, 0, 0, 0.2f);
+    private static final Color HEALTH_BAR_FILL = new Color(0.35f, 0.4f, 0.7f, 0.9f);
     private static final int SPEAR_DAMAGE = 100;
     private static final float BULLET_SPEED = 1000f;
     private static final int BULLET_DAMAGE = 20;
@@ -69,7 +66,7 @@ public class Player extends Actor {
 
     public enum WeaponType {GUN, SPEAR, NORMAL}
 
-    private final ShapeRenderer shapeRenderer;
+    private final HealthBarRenderer healthBars;
     private final World world;
     private final Body body;
     private final Vector2 velocity;
@@ -96,18 +93,23 @@ public class Player extends Actor {
     private final Map<WeaponType, Animation<TextureRegion>> shadowDeathAnimations;
     private int previousFrameIndex = -1;
     private static final float MIN_TIME_BETWEEN_SHOTS = 0.1f; // Adjust as needed
-    private final Array<ParticleEffectPool.PooledEffect> activeBloodEffects;  // Use PooledEffect instead of ParticleEffect
-    private final ParticleEffectPool bloodEffectPool;
+    private final BloodEffectBank bloodEffects;
     private final AssetManager assetManager;
     private final boolean male;
     private final BulletPool bulletPool;
+    private final EntityGrid entityGrid;
+    private final Array<Rectangle> nearbyRects = new Array<>();
+    private final Array<Actor> nearbyActors = new Array<>();
 
-    public  Player(float x, float y, World world, CollisionManager collisionManager, AssetManager assetManager, boolean male, BulletPool bulletPool) {
+    public  Player(float x, float y, World world, CollisionManager collisionManager, EntityGrid entityGrid, AssetManager assetManager, boolean male, BulletPool bulletPool, BloodEffectBank bloodEffects,
+                   HealthBarRenderer healthBars) {
         this.assetManager = assetManager;
         this.bulletPool = bulletPool;
-        this.shapeRenderer = new ShapeRenderer();
+        this.bloodEffects = bloodEffects;
+        this.healthBars = healthBars;
         this.world = world;
         this.collisionManager = collisionManager;
+        this.entityGrid = entityGrid;
         this.velocity = new Vector2();
         this.currentWeapon = WeaponType.NORMAL;
         this.currentState = PlayerState.IDLE;
@@ -138,16 +140,8 @@ public class Player extends Actor {
         loadAnimations();
         loadShadows();
 
-        // Load blood effect
-        // bloodEffect = new ParticleEffect();
-        //bloodEffect.load(Gdx.files.internal("blood.p"), Gdx.files.internal(""));
-
-        ParticleEffect bloodEffectTemplate = new ParticleEffect();
-        bloodEffectTemplate.load(Gdx.files.internal("blood.p"), Gdx.files.internal(""));
-        bloodEffectPool = new ParticleEffectPool(bloodEffectTemplate, 5, 6);
-        activeBloodEffects = new Array<>();
-
         setSize(BODY_RADIUS * 2, BODY_RADIUS * 2);
+        entityGrid.update(this, x, y);
     }
 
     private void loadAnimations() {
@@ -228,16 +222,13 @@ public class Player extends Actor {
     }
 
     private void loadAnimation(WeaponType weapon, PlayerState state, String filename, int directions) {
-        Texture sheet;
-        if(male) {
-            sheet = assetManager.get("male/"+filename, Texture.class);
-        } else {
-            sheet = assetManager.get("female/"+filename, Texture.class);
-        }
+        // Sheets are packed whole into the male or female atlas, named after the file
+        TextureAtlas atlas = assetManager.get(Atlases.forPlayer(male), TextureAtlas.class);
+        TextureRegion sheet = Atlases.findRegion(atlas, filename.substring(0, filename.length() - ".png".length()));
 
-        int frameWidth = sheet.getWidth() / 8;
-        int frameHeight = sheet.getHeight() / directions;
-        TextureRegion[][] tmp = TextureRegion.split(sheet, frameWidth, frameHeight);
+        int frameWidth = sheet.getRegionWidth() / 8;
+        int frameHeight = sheet.getRegionHeight() / directions;
+        TextureRegion[][] tmp = sheet.split(frameWidth, frameHeight);
         Animation<TextureRegion>[] directionAnimations = new Animation[directions];
         for (int dir = 0; dir < directions; dir++) {
             Array<TextureRegion> frames = new Array<>(tmp[dir]);
@@ -247,17 +238,13 @@ public class Player extends Actor {
     }
 
     private void loadShadows() {
-        Texture shadowTexture = assetManager.get("Shadow.png", Texture.class);
-        shadowAnimation = new Animation<>(FRAME_DURATION, new TextureRegion(shadowTexture));
-
-        Texture shadowGunTexture = new Texture(Gdx.files.internal("male/death_Gun_shadow.png"));
-        Animation<TextureRegion> deathGunShadow = new Animation<>(FRAME_DURATION, new TextureRegion(shadowGunTexture));
+        TextureAtlas sprites = assetManager.get(Atlases.SPRITES, TextureAtlas.class);
+        shadowAnimation = new Animation<>(FRAME_DURATION, Atlases.findRegion(sprites, "Shadow"));
 
-        Texture shadowSpearTexture = new Texture(Gdx.files.internal("male/death_Spear_shadow.png"));
-        Animation<TextureRegion> deathSpearShadow = new Animation<>(FRAME_DURATION, new TextureRegion(shadowSpearTexture));
-
-        Texture shadowNormalTexture = new Texture(Gdx.files.internal("male/death_normal_shadow.png"));
-        Animation<TextureRegion> deathNormalShadow = new Animation<>(FRAME_DURATION, new TextureRegion(shadowNormalTexture));
+        // The death shadows are shared by both characters, so they live in the sprites atlas
+        Animation<TextureRegion> deathGunShadow = new Animation<>(FRAME_DURATION, Atlases.findRegion(sprites, "death_Gun_shadow"));
+        Animation<TextureRegion> deathSpearShadow = new Animation<>(FRAME_DURATION, Atlases.findRegion(sprites, "death_Spear_shadow"));
+        Animation<TextureRegion> deathNormalShadow = new Animation<>(FRAME_DURATION, Atlases.findRegion(sprites, "death_normal_shadow"));
 
         // Store shadow death animations per weapon type
         shadowDeathAnimations.put(WeaponType.GUN, deathGunShadow);
@@ -269,6 +256,7 @@ public class Player extends Actor {
     public void act(float delta) {
         super.act(delta);
         stateTime += delta;
+        entityGrid.update(this, body.getPosition().x, body.getPosition().y);
 
         // Update direction even if movement is suspended
         updateDirection();
@@ -292,20 +280,6 @@ public class Player extends Actor {
         if (isSpearAttack) {
             checkSpearAttackCollision();
         }
-
-
-        // Remove completed blood effects
-        for (int i = activeBloodEffects.size - 1; i >= 0; i--) {
-            ParticleEffectPool.PooledEffect bloodEffect = activeBloodEffects.get(i);
-            bloodEffect.setPosition(getPosition().x,getPosition().y);
-            bloodEffect.update(delta);
-
-            // If the effect is complete, free it back to the pool
-            if (bloodEffect.isComplete()) {
-                bloodEffect.free();
-                activeBloodEffects.removeIndex(i);
-            }
-        }
     }
 
     private void updateState(float delta) {
@@ -419,16 +393,12 @@ public class Player extends Actor {
     }
 
     private boolean isColliding(Vector2 newPosition) {
-        for (Rectangle rect : collisionManager.getCollisionRectangles()) {
-            if (rect.contains(newPosition)) {
-                return true;
-            }
-        }
-        return false;
+        return collisionManager.queryPoint(newPosition.x, newPosition.y, nearbyRects) > 0;
     }
 
     private void resolveCollision(Vector2 newPosition) {
-        for (Rectangle rect : collisionManager.getCollisionRectangles()) {
+        collisionManager.queryPoint(newPosition.x, newPosition.y, nearbyRects);
+        for (Rectangle rect : nearbyRects) {
             if (rect.contains(newPosition)) {
                 Vector2 correction = new Vector2();
                 float overlapX = Math.min(newPosition.x - rect.x, rect.x + rect.width - newPosition.x);
@@ -498,12 +468,7 @@ public class Player extends Actor {
             TextureRegion shadowFrame = shadowAnimation.getKeyFrame(stateTime, false);
             batch.draw(shadowFrame, getX(), getY(), getWidth(), getHeight());
         }
-        drawHealthBar(batch);
-        for (ParticleEffectPool.PooledEffect bloodEffect : activeBloodEffects) {
-            if (!bloodEffect.isComplete()) {
-                bloodEffect.draw(batch);
-            }
-        }
+        drawHealthBar();
     }
 
     public void setVelocity(Vector2 newVelocity) {
@@ -521,36 +486,13 @@ public class Player extends Actor {
         }
     }
 
-    private void drawHealthBar(Batch batch) {
-        batch.end();
+    private void drawHealthBar() {
         float healthBarWidth = getWidth() * 0.90f;
-        float healthBarHeight = 6;
-        float healthPercentage = (float) health / INITIAL_HEALTH;
-        float currentHealthBarWidth = healthBarWidth * healthPercentage;
-
         float healthBarX = getX() + (getWidth() * 0.05f);
         float healthBarY = getY() + getHeight() - 4;
-
-        shapeRenderer.setProjectionMatrix(batch.getProjectionMatrix());
-
-        // Draw the background
-        shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
-        shapeRenderer.setColor(new Color(0, 0, 0, 0.2f));
-        shapeRenderer.rect(healthBarX, healthBarY, healthBarWidth, healthBarHeight);
-        shapeRenderer.end();
-
-        // Draw the health bar
-        shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
-        shapeRenderer.setColor(new Color(0.35f, 0.4f, 0.7f, 0.9f));
-        shapeRenderer.rect(healthBarX, healthBarY, currentHealthBarWidth, healthBarHeight);
-        shapeRenderer.end();
-
-        // Draw the outline
-        shapeRenderer.begin(ShapeRenderer.ShapeType.Line);
-        shapeRenderer.setColor(Color.BLACK);
-        shapeRenderer.rect(healthBarX, healthBarY, healthBarWidth, healthBarHeight);
-        shapeRenderer.end();
-        batch.begin();
+        // Queued, the bars are drawn after the stage in one pass
+        healthBars.add(healthBarX, healthBarY, healthBarWidth, 6, (float) health / INITIAL_HEALTH,
+                HEALTH_BAR_BACKGROUND, HEALTH_BAR_FILL);
     }
 
     public void shoot() {
@@ -672,149 +614,11 @@ public class Player extends Actor {
         }
     }
 
-    private void setBloodDirection(ParticleEffectPool.PooledEffect effect, Vector2 attackDirection) {
-        attackDirection.nor();  // Normalize the direction vector
-        for (ParticleEmitter emitter : effect.getEmitters()) {
-            emitter.getAngle().setHigh(attackDirection.angleDeg());  // Set the direction of the blood splatter
-            emitter.getAngle().setLow(attackDirection.angleDeg());
-        }
-    }
-
-    private void enhanceBloodEffect(ParticleEffectPool.PooledEffect effect) {
-        Array<ParticleEmitter> emitters = new Array<>(effect.getEmitters());
-        for (ParticleEmitter emitter : emitters) {
-            // Randomize between Splash and Blurp-like effects
-            boolean isSplash = MathUtils.randomBoolean(0.7f);  // 70% chance for splash
-
-            // Emission settings (based on Splash or Blurp)
-            if (isSplash) {
-                emitter.getEmission().setHigh(50f, 90f);
-                emitter.getEmission().setLow(25f, 50f);
-            } else {
-                emitter.getEmission().setHigh(50f, 100f);
-                emitter.getEmission().setLow(0f);
-            }
-
-            // Life settings
-            emitter.getLife().setHigh(200f, 250f); // High values for longer lifetime
-            emitter.getLife().setLow(50f, 150f);   // Low values for shorter lifetime
-
-            // Spawn shape settings (ellipse for Splash, square for Blurp)
-            if (isSplash) {
-                emitter.getSpawnWidth().setHigh(3f, 13f);
-                emitter.getSpawnHeight().setHigh(3f, 13f);
-            } else {
-                emitter.getSpawnWidth().setHigh(1f, 1f); // Fixed small size for Blurp
-                emitter.getSpawnHeight().setHigh(1f, 1f);
-            }
-
-            // Scale settings
-            if (isSplash) {
-                emitter.getXScale().setHigh(1.5f, 2.5f);  // Bigger scale for splash
-                emitter.getYScale().setHigh(2f, 3.5f);    // Taller splash
-            } else {
-                emitter.getXScale().setHigh(1.5f, 1.5f);  // Smaller for pooling effect
-                emitter.getYScale().setHigh(2f, 2f);
-            }
-
-            // Velocity settings (faster for Splash, slower for Blurp)
-            if (isSplash) {
-                emitter.getVelocity().setHigh(12f, 35f);
-            } else {
-                emitter.getVelocity().setHigh(15f, 20f);
-                emitter.getVelocity().setLow(0f);  // Minimal movement for pooling
-            }
-
-            // Angle settings
-            if (isSplash) {
-                emitter.getAngle().setHigh(31f, 180f);  // Random angles for splash spread
-            } else {
-                emitter.getAngle().setHigh(91f, 93f);  // Vertical drop for pooling
-            }
-
-            // Rotation settings
-            if (isSplash) {
-                emitter.getRotation().setHigh(0f, 130f);  // Add rotation for dynamic splash
-            } else {
-                emitter.getRotation().setActive(false);  // No rotation for pooling
-            }
-
-            // Gravity settings (stronger gravity for Splash)
-            if (isSplash) {
-                emitter.getGravity().setHigh(-50f, -150f);  // Strong gravity for splash fall
-            } else {
-                emitter.getGravity().setHigh(-50f, -75f);   // Weaker gravity for pooling
-            }
-
-            // STRICT RED Tint settings (only shades of red, no green or blue)
-            float rStart = MathUtils.random(0.8f, 1f);   // Bright red at start (full red spectrum)
-            float rEnd = MathUtils.random(0.4f, 0.7f);   // Darker red at the end (still red)
-
-            // Green and Blue are locked at zero to prevent any other color
-            emitter.getTint().setColors(new float[]{
-                    rStart, 0f, 0f, 1f,    // Starting color: bright red (R, G, B, Alpha)
-                    rEnd, 0f, 0f, 0.7f     // Ending color: darker red (R, G, B, Alpha with transparency)
-            });
-            emitter.getTint().setTimeline(new float[]{0f, 1f});  // Full timeline for color transition
-
-            // Transparency settings
-            emitter.getTransparency().setHigh(1f);  // Fully opaque at start
-            emitter.getTransparency().setLow(0.7f);  // Slight transparency towards the end
-
-            // Wind settings (no wind for pooling, some wind for Splash)
-            if (isSplash) {
-                emitter.getWind().setActive(true);
-                emitter.getWind().setHigh(MathUtils.random(-20f, 20f));  // Random wind effect
-                emitter.getWind().setLow(MathUtils.random(-10f, 10f));
-            } else {
-                emitter.getWind().setActive(false);  // No wind for pooling
-            }
-
-            // Particle count (higher for Splash, lower for Blurp)
-            if (isSplash) {
-                emitter.setMaxParticleCount(MathUtils.random(25, 100));
-            } else {
-                emitter.setMaxParticleCount(MathUtils.random(5, 20));  // Less for pooling
-            }
-
-            // Misc options
-            emitter.setAdditive(false);
-            emitter.setBehind(true);
-            emitter.setAligned(isSplash);  // Splash particles are aligned
-            emitter.setPremultipliedAlpha(false);
-            emitter.setSpriteMode(ParticleEmitter.SpriteMode.random);
-        }
-
-        // Set position of the effect (based on player position)
-        effect.setPosition(this.getPosition().x, this.getPosition().y);
-
-        // Add slight random offset for more natural appearance
-        float offsetX = MathUtils.random(-5f, 5f);
-        float offsetY = MathUtils.random(-5f, 5f);
-        effect.setPosition(
-                this.getPosition().x + offsetX,
-                this.getPosition().y + offsetY
-        );
-
-        // Scale the entire effect randomly for variety
-        effect.scaleEffect(MathUtils.random(0.8f, 1.2f));
-    }
-
-
     public void takeDamage(int damage, Vector2 attackDirection) {
         if (!isDead) {
             health -= damage;
-            // Trigger blood effect at player's position
-            ParticleEffectPool.PooledEffect newBloodEffect = bloodEffectPool.obtain();
-            setBloodDirection(newBloodEffect, attackDirection);  // Set blood direction based on attack direction
-            enhanceBloodEffect(newBloodEffect);
-            //modifyBlood(newBloodEffect);
-            // Set position and start the effect
-            newBloodEffect.setPosition(getX() + getWidth() / 2, getY() + getHeight() / 2);
-            newBloodEffect.start();
-
-            // Add the effect to active blood effects
-            activeBloodEffects.add(newBloodEffect);
+            // Trigger blood effect at player's position, sprayed along the attack direction
+            bloodEffects.spawn(getX() + getWidth() / 2, getY() + getHeight() / 2, attackDirection);
 
             if (health <= 0) {
                 die();
@@ -851,30 +655,10 @@ public class Player extends Actor {
     }
 
     public void dispose() {
-
-        for (Map<PlayerState, Animation<TextureRegion>[]> weaponAnimations : animations.values()) {
-            for (Animation<TextureRegion>[] stateAnimations : weaponAnimations.values()) {
-                for (Animation<TextureRegion> animation : stateAnimations) {
-                    for (TextureRegion frame : animation.getKeyFrames()) {
-                        frame.getTexture().dispose();
-                    }
-                }
-            }
-        }
-
-        for (TextureRegion frame : shadowAnimation.getKeyFrames()) {
-            frame.getTexture().dispose();
-        }
-
+        // Animation frames are atlas regions owned by the AssetManager
         if (body != null) {
             world.destroyBody(body);
         }
-        for (ParticleEffectPool.PooledEffect effect : activeBloodEffects) {
-            effect.free();
-        }
-        bloodEffectPool.clear();
-
-        shapeRenderer.dispose();
     }
 
     public WeaponType getCurrentWeapon() {
@@ -892,7 +676,9 @@ public class Player extends Actor {
         if (spearHasHit) return;
 
         Rectangle attackBounds = getAttackBounds();
-        for (Actor actor : getStage().getActors()) {
+        float searchRadius = attackBounds.width + attackBounds.height;
+        entityGrid.queryRadius(getX(Align.center), getY(Align.center), searchRadius, nearbyActors);
+        for (Actor actor : nearbyActors) {
             if (actor instanceof Enemy) {
                 Enemy enemy = (Enemy) actor;
                 if (attackBounds.overlaps(enemy.getBounds())) {
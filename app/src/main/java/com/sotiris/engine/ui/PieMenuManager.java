@@ -441,14 +441,12 @@ public class PieMenuManager extends PieMenu.PieMenuCallbacks {
     }
 
     /**
-     * Cleans up resources by removing the PieMenu and ProgressBar from the stage, disposing of the skin, and sounds.
+     * Cleans up resources by removing the PieMenu and ProgressBar from the stage and disposing of the sounds.
+     * The skin is shared and stays with its owner.
      */
     public void dispose() {
         pieMenu.remove(); // Remove PieMenu from stage
         progressBar.remove(); // Remove ProgressBar from stage
-        if (skin != null) {
-            skin.dispose(); // Dispose of Skin resources
-        }
         // Dispose of sound resources
         progressBarOpenedSound.dispose();
         grantedStateChangeSound.dispose();
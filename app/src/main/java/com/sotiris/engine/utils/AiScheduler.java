@@ -0,0 +1,143 @@
+package com.sotiris.engine.utils;
+
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Align;
+import com.badlogic.gdx.utils.Array;
+import com.sotiris.engine.entities.Enemy;
+
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * AiScheduler decides when each enemy runs its decision update. Enemies close to the player
+ * and on screen think every frame, the others at lower rates depending on distance, and at
+ * most a fixed number of enemies think in a frame. Enemies that did not get their turn keep it
+ * for the next frame, the round-robin cursor makes sure nobody starves. Movement still runs
+ * every frame in Enemy.act.
+ * <p>
+ * A frame has two phases. Enemy.think only reads shared state and runs on the common
+ * ForkJoinPool, then Enemy.applyDecision writes the results back on the render thread in
+ * enemy id order, so the outcome does not depend on thread scheduling.
+ */
+public class AiScheduler {
+    private static final float NEAR_DISTANCE = 600f;
+    private static final float NEAR_OFF_SCREEN_INTERVAL = 0.1f;
+    private static final float FAR_INTERVAL = 0.5f;
+    private static final float SCREEN_MARGIN = 64f;
+    // Fixed count rather than a measured time, so which enemies think each frame is the same
+    // on every device and every run
+    private static final int THINKS_PER_FRAME = 100;
+    // Below this many enemies per task, forking costs more than it saves
+    private static final int PARALLEL_GRAIN = 8;
+
+    private static final Comparator<Slot> BY_ID = (a, b) -> Integer.compare(a.enemy.getId(), b.enemy.getId());
+
+    private static class Slot {
+        Enemy enemy;
+        float elapsed;
+    }
+
+    private class ThinkTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+
+        ThinkTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_GRAIN) {
+                thinkRange(from, to);
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ThinkTask(from, middle), new ThinkTask(middle, to));
+            }
+        }
+    }
+
+    private final Array<Slot> slots = new Array<>();
+    private final Array<Slot> due = new Array<>();
+    private final Vector2 playerSnapshot = new Vector2();
+    private final ForkJoinPool pool = ForkJoinPool.commonPool();
+    private int cursor;
+
+    public void add(Enemy enemy) {
+        Slot slot = new Slot();
+        slot.enemy = enemy;
+        // Think on the first frame so a fresh enemy reacts immediately
+        slot.elapsed = Float.MAX_VALUE;
+        slots.add(slot);
+    }
+
+    public void clear() {
+        slots.clear();
+        due.clear();
+        cursor = 0;
+    }
+
+    public int size() {
+        return slots.size;
+    }
+
+    public void update(float delta, Vector2 playerPosition, Camera camera) {
+        // Drop enemies that left the stage, gameStage.clear() detaches them without remove()
+        for (int i = slots.size - 1; i >= 0; i--) {
+            Slot slot = slots.get(i);
+            if (slot.enemy.getStage() == null || slot.enemy.isDead()) {
+                slots.removeIndex(i);
+            } else if (slot.elapsed != Float.MAX_VALUE) {
+                slot.elapsed += delta;
+            }
+        }
+        if (slots.size == 0) return;
+
+        // Pick the enemies that are due, as many as the budget allows
+        due.clear();
+        int count = slots.size;
+        for (int i = 0; i < count && due.size < THINKS_PER_FRAME; i++) {
+            if (cursor >= slots.size) cursor = 0;
+            Slot slot = slots.get(cursor++);
+            if (slot.elapsed < intervalFor(slot.enemy, playerPosition, camera)) continue;
+            due.add(slot);
+        }
+        if (due.size == 0) return;
+
+        // Think phase, the snapshot keeps the player position stable for every thread
+        playerSnapshot.set(playerPosition);
+        if (due.size <= PARALLEL_GRAIN) {
+            thinkRange(0, due.size);
+        } else {
+            pool.invoke(new ThinkTask(0, due.size));
+        }
+
+        // Apply phase, single threaded in stable id order
+        due.sort(BY_ID);
+        for (Slot slot : due) {
+            slot.enemy.applyDecision();
+            slot.elapsed = 0f;
+        }
+    }
+
+    private void thinkRange(int from, int to) {
+        for (int i = from; i < to; i++) {
+            Slot slot = due.get(i);
+            slot.enemy.think(playerSnapshot);
+        }
+    }
+
+    private float intervalFor(Enemy enemy, Vector2 playerPosition, Camera camera) {
+        float x = enemy.getX(Align.center);
+        float y = enemy.getY(Align.center);
+        if (playerPosition.dst2(x, y) > NEAR_DISTANCE * NEAR_DISTANCE) {
+            return FAR_INTERVAL;
+        }
+        if (!camera.frustum.sphereInFrustum(x, y, 0f, SCREEN_MARGIN)) {
+            return NEAR_OFF_SCREEN_INTERVAL;
+        }
+        return 0f;
+    }
+}
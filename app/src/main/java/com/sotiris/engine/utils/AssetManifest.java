@@ -0,0 +1,116 @@
+package com.sotiris.engine.utils;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.ParticleEffect;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.ObjectSet;
+
+import games.spooky.gdx.sfx.SfxSound;
+
+/**
+ * AssetManifest lists the assets a launch needs: the common set, the mission's and the chosen
+ * character's, each declared in a JSON file under assets/manifests. The launcher resolves it
+ * from the mission id and gender before anything loads, Demo then acquires exactly that set.
+ * Resolving only picks the files, they are read in acquire() once the backend is up.
+ */
+public class AssetManifest {
+    public static final String DEFAULT_MISSION = "mission_1";
+
+    private static final String ROOT = "manifests/";
+
+    private static final ObjectMap<String, Class<?>> TYPES = new ObjectMap<>();
+
+    static {
+        TYPES.put("texture", Texture.class);
+        TYPES.put("atlas", TextureAtlas.class);
+        TYPES.put("font", BitmapFont.class);
+        TYPES.put("particle", ParticleEffect.class);
+        TYPES.put("map", TiledMap.class);
+        TYPES.put("sound", SfxSound.class);
+    }
+
+    private final String missionId;
+    private final boolean male;
+    private final Array<String> files = new Array<>();
+    private String mapPath;
+
+    private AssetManifest(String missionId, boolean male) {
+        this.missionId = missionId;
+        this.male = male;
+        files.add(ROOT + "common.json");
+        files.add(ROOT + "missions/" + missionId + ".json");
+        files.add(ROOT + "characters/" + (male ? "male" : "female") + ".json");
+    }
+
+    /**
+     * Picks the manifests for a mission and a gender as passed around by the launchers,
+     * anything but a "Female" gender is the male character.
+     */
+    public static AssetManifest resolve(String missionId, String gender) {
+        return new AssetManifest(missionId != null ? missionId : DEFAULT_MISSION, isMale(gender));
+    }
+
+    public static boolean isMale(String gender) {
+        return gender == null || !gender.contains("Female");
+    }
+
+    /**
+     * Reads the manifests and acquires their assets from the service, each path once. Returns
+     * the acquired paths, hand them back to release() when done. Call update() on the service
+     * afterwards, assets still loaded from an earlier run are ready at once.
+     */
+    public Array<String> acquire(AssetService assets) {
+        JsonReader reader = new JsonReader();
+        ObjectSet<String> seen = new ObjectSet<>();
+        Array<String> acquired = new Array<>();
+        for (String path : files) {
+            FileHandle file = Gdx.files.internal(path);
+            if (!file.exists()) {
+                throw new GdxRuntimeException("Asset manifest not found: " + path);
+            }
+            JsonValue root = reader.parse(file);
+            if (root.has("map")) {
+                mapPath = root.getString("map");
+            }
+            for (JsonValue entry = root.getChild("assets"); entry != null; entry = entry.next) {
+                String assetPath = entry.getString("path");
+                Class<?> type = TYPES.get(entry.getString("type"));
+                if (type == null) {
+                    throw new GdxRuntimeException("Unknown asset type '" + entry.getString("type") + "' in " + path);
+                }
+                if (seen.add(assetPath)) {
+                    assets.acquire(assetPath, type);
+                    acquired.add(assetPath);
+                }
+            }
+        }
+        return acquired;
+    }
+
+    public String getMissionId() {
+        return missionId;
+    }
+
+    public boolean isMale() {
+        return male;
+    }
+
+    /**
+     * The mission's tiled map, known once acquire() has read the manifests.
+     */
+    public String getMapPath() {
+        if (mapPath == null) {
+            throw new GdxRuntimeException("No map declared for mission " + missionId);
+        }
+        return mapPath;
+    }
+}
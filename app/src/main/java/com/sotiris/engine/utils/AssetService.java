@@ -0,0 +1,195 @@
+package com.sotiris.engine.utils;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.resolvers.InternalFileHandleResolver;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TmxMapLoader;
+import com.badlogic.gdx.scenes.scene2d.ui.Skin;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.TimeUtils;
+
+import games.spooky.gdx.sfx.SfxSound;
+import games.spooky.gdx.sfx.SfxSoundLoader;
+
+/**
+ * AssetService owns the one AssetManager of the application and outlives the screens using it.
+ * Screens acquire the assets they need and release them when they go away. A released asset
+ * stays loaded while it is idle, so the next run picks it up without touching the disk, and
+ * is unloaded only once nobody asked for it again within IDLE_EVICT_MILLIS. It also holds the
+ * UI skin, built once and shared by the menu and the game, nobody but the service disposes it.
+ */
+public class AssetService implements Disposable {
+    public static final String SKIN_ATLAS = "skin/uiskin.atlas";
+    public static final String SKIN_FONT = "skin/default.fnt";
+    private static final String SKIN_JSON = "skin/uiskin.json";
+
+    private static final long IDLE_EVICT_MILLIS = 120_000L;
+
+    private final AssetManager assetManager;
+    // PNGs decode on every core, only the GL upload runs on the render thread
+    private final PixmapDecodePool decodePool;
+    private final ParallelTextureLoader textureLoader;
+    private final TextureVariants textureVariants = new TextureVariants();
+    // Acquisitions per path, a path is loaded into the AssetManager once however many hold it
+    private final ObjectIntMap<String> references = new ObjectIntMap<>();
+    // Type each path was acquired as, so eviction can cancel its prefetched Pixmaps
+    private final ObjectMap<String, Class<?>> types = new ObjectMap<>();
+    // Released paths and when they were last released
+    private final ObjectMap<String, Long> idleSince = new ObjectMap<>();
+    private Skin skin;
+
+    public AssetService() {
+        InternalFileHandleResolver resolver = new InternalFileHandleResolver();
+        assetManager = new AssetManager(resolver);
+        decodePool = new PixmapDecodePool();
+        textureLoader = new ParallelTextureLoader(resolver, decodePool, textureVariants);
+        assetManager.setLoader(Texture.class, textureLoader);
+        assetManager.setLoader(SfxSound.class, new SfxSoundLoader(resolver));
+        assetManager.setLoader(TiledMap.class, new TmxMapLoader(resolver));
+    }
+
+    /**
+     * Takes a reference on an asset, queueing it if it is not loaded yet. Pair every call with
+     * release(). Loading happens in update().
+     */
+    public void acquire(String path, Class<?> type) {
+        // Always called on the render thread and before anything loads
+        textureVariants.detect();
+        int count = references.getAndIncrement(path, 0, 1);
+        if (count == 0 && idleSince.remove(path) == null) {
+            types.put(path, type);
+            assetManager.load(path, type);
+            textureLoader.prefetch(path, type);
+        }
+    }
+
+    /**
+     * Drops a reference. The last one leaves the asset idle, it is unloaded by evictIdle()
+     * unless acquired again first.
+     */
+    public void release(String path) {
+        int count = references.get(path, 0);
+        if (count <= 0) {
+            Gdx.app.error("AssetService", "Released an asset that was not acquired: " + path);
+            return;
+        }
+        references.put(path, count - 1);
+        if (count == 1) {
+            idleSince.put(path, TimeUtils.millis());
+        }
+    }
+
+    public void release(Array<String> paths) {
+        for (String path : paths) {
+            release(path);
+        }
+    }
+
+    /**
+     * Unloads the assets that have been idle for longer than the eviction delay, call it once
+     * a frame.
+     */
+    public void evictIdle() {
+        evictIdleSince(TimeUtils.millis() - IDLE_EVICT_MILLIS);
+    }
+
+    /**
+     * Unloads every idle asset right away, for when memory matters more than the next start.
+     */
+    public void evictAllIdle() {
+        evictIdleSince(Long.MAX_VALUE);
+    }
+
+    private void evictIdleSince(long threshold) {
+        ObjectMap.Entries<String, Long> entries = idleSince.entries();
+        while (entries.hasNext()) {
+            ObjectMap.Entry<String, Long> entry = entries.next();
+            if (entry.value <= threshold) {
+                references.remove(entry.key, 0);
+                Class<?> type = types.remove(entry.key);
+                if (!assetManager.isLoaded(entry.key) && type != null) {
+                    // Still queued, the loader will never take what was prefetched for it
+                    textureLoader.cancel(entry.key, type);
+                }
+                if (assetManager.isLoaded(entry.key) || assetManager.contains(entry.key)) {
+                    assetManager.unload(entry.key);
+                }
+                entries.remove();
+            }
+        }
+    }
+
+    /**
+     * Loads for at most millis, true once everything acquired is in.
+     */
+    public boolean update(int millis) {
+        return assetManager.update(millis);
+    }
+
+    public float getProgress() {
+        return assetManager.getProgress();
+    }
+
+    public <T> T get(String path, Class<T> type) {
+        return assetManager.get(path, type);
+    }
+
+    public AssetManager getAssetManager() {
+        return assetManager;
+    }
+
+    public PixmapDecodePool getDecodePool() {
+        return decodePool;
+    }
+
+    /**
+     * The shared UI skin, loaded on first use. The service holds its atlas and font for as long
+     * as it lives.
+     */
+    public Skin getSkin() {
+        if (skin == null) {
+            acquire(SKIN_ATLAS, TextureAtlas.class);
+            acquire(SKIN_FONT, BitmapFont.class);
+            assetManager.finishLoadingAsset(SKIN_ATLAS);
+            assetManager.finishLoadingAsset(SKIN_FONT);
+
+            skin = new Skin();
+            skin.addRegions(assetManager.get(SKIN_ATLAS, TextureAtlas.class));
+            skin.add("font", assetManager.get(SKIN_FONT, BitmapFont.class));
+            skin.load(Gdx.files.internal(SKIN_JSON));
+        }
+        return skin;
+    }
+
+    /**
+     * A font drawing from the shared skin font's glyph page with metrics of its own, so it can
+     * be scaled freely. It owns no texture, disposing it frees nothing shared.
+     */
+    public BitmapFont newSkinFont() {
+        BitmapFont shared = getSkin().getFont("font");
+        BitmapFont.BitmapFontData data = new BitmapFont.BitmapFontData(Gdx.files.internal(SKIN_FONT), shared.isFlipped());
+        return new BitmapFont(data, shared.getRegions(), shared.usesIntegerPositions());
+    }
+
+    @Override
+    public void dispose() {
+        // The skin's own resources only, its atlas and font belong to the AssetManager
+        if (skin != null) {
+            skin.remove("font", BitmapFont.class);
+            skin.dispose();
+            skin = null;
+        }
+        assetManager.dispose();
+        decodePool.dispose();
+        references.clear();
+        types.clear();
+        idleSince.clear();
+    }
+}
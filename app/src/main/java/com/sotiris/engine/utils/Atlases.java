@@ -0,0 +1,49 @@
+package com.sotiris.engine.utils;
+
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * Atlases names the texture atlases packed by the app module's packTextures Gradle task.
+ * Regions are named after their source file without extension, a trailing _N becomes the
+ * region index (cars/carstatic_3.png is region "carstatic", index 3).
+ */
+public final class Atlases {
+    public static final String MALE = "atlas/male.atlas";
+    public static final String FEMALE = "atlas/female.atlas";
+    public static final String ENEMY = "atlas/enemy.atlas";
+    // Trimmed, draw these through atlas sprites so the stripped whitespace is put back
+    public static final String CARS = "atlas/cars.atlas";
+    // Bullet and shadows
+    public static final String SPRITES = "atlas/sprites.atlas";
+
+    private Atlases() {
+    }
+
+    public static String forPlayer(boolean male) {
+        return male ? MALE : FEMALE;
+    }
+
+    /**
+     * Finds a region, failing loudly when the atlas was packed without it.
+     */
+    public static TextureAtlas.AtlasRegion findRegion(TextureAtlas atlas, String name) {
+        TextureAtlas.AtlasRegion region = atlas.findRegion(name);
+        if (region == null) {
+            throw new GdxRuntimeException("Region not found in atlas: " + name);
+        }
+        return region;
+    }
+
+    public static TextureAtlas.AtlasSprite createSprite(TextureAtlas atlas, String name, int index) {
+        TextureAtlas.AtlasRegion region = atlas.findRegion(name, index);
+        if (region == null) {
+            throw new GdxRuntimeException("Region not found in atlas: " + name + "_" + index);
+        }
+        return new TextureAtlas.AtlasSprite(region);
+    }
+
+    public static TextureAtlas.AtlasSprite createSprite(TextureAtlas atlas, String name) {
+        return new TextureAtlas.AtlasSprite(findRegion(atlas, name));
+    }
+}
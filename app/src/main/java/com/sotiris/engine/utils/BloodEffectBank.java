@@ -0,0 +1,149 @@
+package com.sotiris.engine.utils;
+
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.graphics.g2d.ParticleEffect;
+import com.badlogic.gdx.graphics.g2d.ParticleEffectPool.PooledEffect;
+import com.badlogic.gdx.graphics.g2d.ParticleEmitter;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * BloodEffectBank builds a fixed set of blood splatter variants from blood.p once, each
+ * registered with the ParticleSystem under its own pool. A hit picks a variant at random, so
+ * it only costs an obtain, the direction update and a start.
+ */
+public class BloodEffectBank {
+    private static final int VARIANTS = 8;
+    private static final float POSITION_JITTER = 5f;
+
+    private final ParticleSystem particleSystem;
+    private final String[] variantNames = new String[VARIANTS];
+
+    public BloodEffectBank(ParticleSystem particleSystem, AssetManager assetManager) {
+        this.particleSystem = particleSystem;
+        ParticleEffect base = assetManager.get(ParticleSystem.BLOOD, ParticleEffect.class);
+        for (int i = 0; i < VARIANTS; i++) {
+            ParticleEffect variant = new ParticleEffect(base);
+            configureVariant(variant);
+            variantNames[i] = ParticleSystem.BLOOD + "#" + i;
+            particleSystem.addTemplate(variantNames[i], variant);
+        }
+    }
+
+    /**
+     * Starts a random variant at (x, y), spraying along direction.
+     */
+    public void spawn(float x, float y, Vector2 direction) {
+        PooledEffect effect = particleSystem.obtain(variantNames[MathUtils.random(VARIANTS - 1)]);
+        float angle = direction.angleDeg();
+        Array<ParticleEmitter> emitters = effect.getEmitters();
+        for (int i = 0; i < emitters.size; i++) {
+            ParticleEmitter emitter = emitters.get(i);
+            emitter.getAngle().setHigh(angle);
+            emitter.getAngle().setLow(angle);
+        }
+        particleSystem.start(effect,
+                x + MathUtils.random(-POSITION_JITTER, POSITION_JITTER),
+                y + MathUtils.random(-POSITION_JITTER, POSITION_JITTER));
+    }
+
+    private static void configureVariant(ParticleEffect effect) {
+        for (ParticleEmitter emitter : effect.getEmitters()) {
+            // Randomize between Splash and Blurp-like effects
+            boolean isSplash = MathUtils.randomBoolean(0.7f);  // 70% chance for splash
+
+            // Emission settings (based on Splash or Blurp)
+            if (isSplash) {
+                emitter.getEmission().setHigh(50f, 90f);
+                emitter.getEmission().setLow(25f, 50f);
+            } else {
+                emitter.getEmission().setHigh(50f, 100f);
+                emitter.getEmission().setLow(0f);
+            }
+
+            // Life settings
+            emitter.getLife().setHigh(200f, 250f); // High values for longer lifetime
+            emitter.getLife().setLow(50f, 150f);   // Low values for shorter lifetime
+
+            // Spawn shape settings (ellipse for Splash, square for Blurp)
+            if (isSplash) {
+                emitter.getSpawnWidth().setHigh(3f, 13f);
+                emitter.getSpawnHeight().setHigh(3f, 13f);
+            } else {
+                emitter.getSpawnWidth().setHigh(1f, 1f); // Fixed small size for Blurp
+                emitter.getSpawnHeight().setHigh(1f, 1f);
+            }
+
+            // Scale settings
+            if (isSplash) {
+                emitter.getXScale().setHigh(1.5f, 2.5f);  // Bigger scale for splash
+                emitter.getYScale().setHigh(2f, 3.5f);    // Taller splash
+            } else {
+                emitter.getXScale().setHigh(1.5f, 1.5f);  // Smaller for pooling effect
+                emitter.getYScale().setHigh(2f, 2f);
+            }
+
+            // Velocity settings (faster for Splash, slower for Blurp)
+            if (isSplash) {
+                emitter.getVelocity().setHigh(12f, 35f);
+            } else {
+                emitter.getVelocity().setHigh(15f, 20f);
+                emitter.getVelocity().setLow(0f);  // Minimal movement for pooling
+            }
+
+            // Rotation settings
+            if (isSplash) {
+                emitter.getRotation().setHigh(0f, 130f);  // Add rotation for dynamic splash
+            } else {
+                emitter.getRotation().setActive(false);  // No rotation for pooling
+            }
+
+            // Gravity settings (stronger gravity for Splash)
+            if (isSplash) {
+                emitter.getGravity().setHigh(-50f, -150f);  // Strong gravity for splash fall
+            } else {
+                emitter.getGravity().setHigh(-50f, -75f);   // Weaker gravity for pooling
+            }
+
+            // Only shades of red, green and blue stay at zero
+            float rStart = MathUtils.random(0.8f, 1f);
+            float rEnd = MathUtils.random(0.4f, 0.7f);
+            emitter.getTint().setColors(new float[]{
+                    rStart, 0f, 0f, 1f,
+                    rEnd, 0f, 0f, 0.7f
+            });
+            emitter.getTint().setTimeline(new float[]{0f, 1f});
+
+            // Transparency settings
+            emitter.getTransparency().setHigh(1f);
+            emitter.getTransparency().setLow(0.7f);
+
+            // Wind settings (no wind for pooling, some wind for Splash)
+            if (isSplash) {
+                emitter.getWind().setActive(true);
+                emitter.getWind().setHigh(MathUtils.random(-20f, 20f));
+                emitter.getWind().setLow(MathUtils.random(-10f, 10f));
+            } else {
+                emitter.getWind().setActive(false);
+            }
+
+            // Particle count (higher for Splash, lower for Blurp)
+            if (isSplash) {
+                emitter.setMaxParticleCount(MathUtils.random(25, 100));
+            } else {
+                emitter.setMaxParticleCount(MathUtils.random(5, 20));
+            }
+
+            // Misc options
+            emitter.setAdditive(false);
+            emitter.setBehind(true);
+            emitter.setAligned(isSplash);  // Splash particles are aligned
+            emitter.setPremultipliedAlpha(false);
+            emitter.setSpriteMode(ParticleEmitter.SpriteMode.random);
+        }
+
+        // Scale the entire effect randomly for variety
+        effect.scaleEffect(MathUtils.random(0.8f, 1.2f));
+    }
+}
@@ -3,43 +3,154 @@ package com.sotiris.engine.utils;
 import com.badlogic.gdx.maps.MapObject;
 import com.badlogic.gdx.maps.objects.RectangleMapObject;
 import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.math.Intersector;
+import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
 import com.sotiris.engine.entities.Player;
 
+import java.util.Arrays;
+
+/**
+ * CollisionManager owns the collision rectangles of the map and a uniform grid over them,
+ * so that per-frame queries only look at rectangles near the area of interest. All query
+ * methods write into a caller-supplied array and do not allocate.
+ * <p>
+ * The rectangles of the "Collisions" layer are baked once per map load from copies and never
+ * change. Everything added later (static cars, car spawn points) lives in a dynamic overlay:
+ * addCollisionRectangle() returns a handle that removes the rectangle in O(1) and clearOverlay()
+ * drops the whole overlay on mission restart.
+ */
 public class CollisionManager {
-    private final Array<Rectangle> collisionRectangles;
+    private static final float CELL_SIZE = 128f;
+    private static final float STATIC_EXPANSION = 5f;
+    private static final float OVERLAY_EXPANSION = 1f;
+    // Further than any avoidance radius, cells beyond it read as open space
+    private static final float FIELD_MAX_DISTANCE = 128f;
+
+    // Slot i holds a baked rectangle for i < staticCount, an overlay rectangle or null otherwise
+    private Rectangle[] slots = new Rectangle[64];
+    // Bumped whenever a slot is reused so stale handles cannot remove someone else's rectangle
+    private int[] generations = new int[64];
+    private final int staticCount;
+    private int slotCount;
+    private final IntArray freeSlots = new IntArray();
+    // Incremented on every overlay change so derived grids know when to rebuild
+    private int version;
+
+    // Uniform grid over the map, each cell holds slot indices
+    private final int columns;
+    private final int rows;
+    private final IntArray[] cells;
+
+    // Per-rectangle stamps so a rectangle spanning several cells is reported once per query
+    private int[] queryMarks = new int[64];
+    private int queryStamp = 0;
+
+    // Fine grid of blocked cells used for line of sight
+    private final OccupancyGrid occupancyGrid;
 
-    private final TiledMap map;
+    // Distance to the closest rectangle for obstacle avoidance
+    private final DistanceField distanceField;
+    private final Rectangle fieldArea = new Rectangle();
+    private final Array<Rectangle> fieldSources = new Array<>();
 
     public CollisionManager(TiledMap map) {
-        collisionRectangles = new Array<>();
-        this.map = map;
+        float mapWidth = map.getProperties().get("width", Integer.class) * map.getProperties().get("tilewidth", Integer.class);
+        float mapHeight = map.getProperties().get("height", Integer.class) * map.getProperties().get("tileheight", Integer.class);
+        columns = Math.max(1, MathUtils.ceil(mapWidth / CELL_SIZE));
+        rows = Math.max(1, MathUtils.ceil(mapHeight / CELL_SIZE));
+        cells = new IntArray[columns * rows];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = new IntArray(false, 8);
+        }
+        // A quarter tile keeps the rasterised rectangles close to their real outline
+        float tileSize = map.getProperties().get("tilewidth", Integer.class);
+        occupancyGrid = new OccupancyGrid(mapWidth, mapHeight, tileSize / 4f);
+        distanceField = new DistanceField(mapWidth, mapHeight, tileSize / 4f, FIELD_MAX_DISTANCE);
+
+        // Bake copies so the rectangles owned by the TiledMap are never modified
         for (MapObject object : map.getLayers().get("Collisions").getObjects()) {
             if (object instanceof RectangleMapObject) {
-                RectangleMapObject rectangleObject = (RectangleMapObject) object;
-                Rectangle rect = rectangleObject.getRectangle();
-                float expandAmount = 5f; // Adjust this value as needed
-                rect.x -= expandAmount; // Move the rectangle left
-                rect.width += expandAmount; // Expand the width to cover the new space
+                Rectangle rect = new Rectangle(((RectangleMapObject) object).getRectangle());
+                rect.x -= STATIC_EXPANSION; // Move the rectangle left
+                rect.width += STATIC_EXPANSION; // Expand the width to cover the new space
 
-                collisionRectangles.add(rect);
+                int slot = allocateSlot();
+                slots[slot] = rect;
+                indexRectangle(slot);
+                occupancyGrid.mark(rect);
+                distanceField.stamp(rect);
             }
         }
+        staticCount = slotCount;
+    }
+
+    /**
+     * Adds a copy of the rectangle, grown slightly, to the dynamic overlay.
+     * @return a handle for removeCollisionRectangle()
+     */
+    public int addCollisionRectangle(Rectangle rectangle) {
+        Rectangle rect = new Rectangle(rectangle);
+        rect.x -= OVERLAY_EXPANSION;
+        rect.y -= OVERLAY_EXPANSION;
+        rect.width += OVERLAY_EXPANSION * 2;
+        rect.height += OVERLAY_EXPANSION * 2;
+
+        int slot = allocateSlot();
+        slots[slot] = rect;
+        indexRectangle(slot);
+        occupancyGrid.addOverlay(rect);
+        distanceField.stamp(rect);
+        version++;
+        return (generations[slot] << 16) | slot;
     }
 
-    public Array<Rectangle> getCollisionRectangles() {
-        return collisionRectangles;
+    /**
+     * Removes an overlay rectangle. Stale handles and handles removed twice are ignored.
+     */
+    public void removeCollisionRectangle(int handle) {
+        int slot = handle & 0xFFFF;
+        if (slot < staticCount || slot >= slotCount || slots[slot] == null) return;
+        if ((generations[slot] & 0xFFFF) != handle >>> 16) return;
+        Rectangle rect = slots[slot];
+        releaseSlot(slot);
+
+        // Rebuild the cells the rectangle influenced from the rectangles still around them
+        float reach = FIELD_MAX_DISTANCE * 2;
+        fieldArea.set(rect.x - reach, rect.y - reach, rect.width + reach * 2, rect.height + reach * 2);
+        queryRect(fieldArea, fieldSources);
+        distanceField.rebuild(rect, fieldSources);
+        version++;
     }
 
-    public void addCollisionRectangle(Rectangle rectangle) {
+    /**
+     * Drops every overlay rectangle, the baked layer is left untouched.
+     */
+    public void clearOverlay() {
+        for (int slot = staticCount; slot < slotCount; slot++) {
+            if (slots[slot] != null) {
+                releaseSlot(slot);
+            }
+        }
+        freeSlots.clear();
+        slotCount = staticCount;
 
-        float expansion = 1f; // Adjust this value to control how much the rectangle expands
-        rectangle.x -= expansion;
-        rectangle.y -= expansion;
-        rectangle.width += (expansion * 2);
-        rectangle.height += (expansion * 2);
-        collisionRectangles.add(rectangle);
+        distanceField.clear();
+        for (int slot = 0; slot < staticCount; slot++) {
+            distanceField.stamp(slots[slot]);
+        }
+        version++;
+    }
+
+    private void releaseSlot(int slot) {
+        Rectangle rect = slots[slot];
+        unindexRectangle(slot);
+        occupancyGrid.removeOverlay(rect);
+        slots[slot] = null;
+        freeSlots.add(slot);
     }
 
     public boolean isPlayerInsideRectangle(Player player, Rectangle rectangle) {
@@ -47,18 +158,241 @@ public class CollisionManager {
         return playerRect.overlaps(rectangle);
     }
 
-    public void clearCollisionRectangles() {
-        collisionRectangles.clear();
-        for (MapObject object : map.getLayers().get("Collisions").getObjects()) {
-            if (object instanceof RectangleMapObject) {
-                RectangleMapObject rectangleObject = (RectangleMapObject) object;
-                Rectangle rect = rectangleObject.getRectangle();
-                float expandAmount = 5f; // Adjust this value as needed
-                rect.x -= expandAmount; // Move the rectangle left
-                rect.width += expandAmount; // Expand the width to cover the new space
+    public int getVersion() {
+        return version;
+    }
+
+    public int getStaticRectangleCount() {
+        return staticCount;
+    }
+
+    public int getOverlayRectangleCount() {
+        return slotCount - staticCount - freeSlots.size;
+    }
+
+    /**
+     * Collects every collision rectangle overlapping the given area into out.
+     * @return the number of rectangles found
+     */
+    public int queryRect(Rectangle area, Array<Rectangle> out) {
+        out.clear();
+        int stamp = nextStamp();
+        int minX = cellX(area.x), maxX = cellX(area.x + area.width);
+        int minY = cellY(area.y), maxY = cellY(area.y + area.height);
+        for (int cy = minY; cy <= maxY; cy++) {
+            for (int cx = minX; cx <= maxX; cx++) {
+                IntArray cell = cells[cy * columns + cx];
+                for (int i = 0; i < cell.size; i++) {
+                    int index = cell.items[i];
+                    if (queryMarks[index] == stamp) continue;
+                    queryMarks[index] = stamp;
+                    Rectangle rect = slots[index];
+                    if (rect.overlaps(area)) {
+                        out.add(rect);
+                    }
+                }
+            }
+        }
+        return out.size;
+    }
+
+    /**
+     * Collects every collision rectangle containing the given point into out.
+     * @return the number of rectangles found
+     */
+    public int queryPoint(float x, float y, Array<Rectangle> out) {
+        out.clear();
+        IntArray cell = cells[cellY(y) * columns + cellX(x)];
+        for (int i = 0; i < cell.size; i++) {
+            Rectangle rect = slots[cell.items[i]];
+            if (rect.contains(x, y)) {
+                out.add(rect);
+            }
+        }
+        return out.size;
+    }
+
+    /**
+     * Collects every collision rectangle crossed by the segment start-end into out.
+     * Only the grid cells the segment passes through are visited.
+     * @return the number of rectangles found
+     */
+    public int querySegment(Vector2 start, Vector2 end, Array<Rectangle> out) {
+        out.clear();
+        int stamp = nextStamp();
+
+        float dx = end.x - start.x;
+        float dy = end.y - start.y;
+        int cx = cellX(start.x), cy = cellY(start.y);
+        int endCx = cellX(end.x), endCy = cellY(end.y);
+        int stepX = dx > 0 ? 1 : -1;
+        int stepY = dy > 0 ? 1 : -1;
+        float tDeltaX = dx != 0 ? CELL_SIZE / Math.abs(dx) : Float.MAX_VALUE;
+        float tDeltaY = dy != 0 ? CELL_SIZE / Math.abs(dy) : Float.MAX_VALUE;
+        float tMaxX = dx != 0 ? ((dx > 0 ? (cx + 1) * CELL_SIZE : cx * CELL_SIZE) - start.x) / dx : Float.MAX_VALUE;
+        float tMaxY = dy != 0 ? ((dy > 0 ? (cy + 1) * CELL_SIZE : cy * CELL_SIZE) - start.y) / dy : Float.MAX_VALUE;
+
+        // The walk can never take more steps than there are rows and columns
+        int steps = columns + rows;
+        while (true) {
+            IntArray cell = cells[cy * columns + cx];
+            for (int i = 0; i < cell.size; i++) {
+                int index = cell.items[i];
+                if (queryMarks[index] == stamp) continue;
+                queryMarks[index] = stamp;
+                Rectangle rect = slots[index];
+                if (Intersector.intersectSegmentRectangle(start, end, rect)) {
+                    out.add(rect);
+                }
+            }
 
-                collisionRectangles.add(rect);
+            if ((cx == endCx && cy == endCy) || steps-- <= 0) break;
+            if (tMaxX < tMaxY) {
+                cx += stepX;
+                tMaxX += tDeltaX;
+            } else {
+                cy += stepY;
+                tMaxY += tDeltaY;
             }
+            if (cx < 0 || cx >= columns || cy < 0 || cy >= rows) break;
         }
+        return out.size;
+    }
+
+    /**
+     * True when no collision rectangle lies between the two points, walking the occupancy grid.
+     */
+    public boolean hasLineOfSight(float x0, float y0, float x1, float y1) {
+        return occupancyGrid.hasLineOfSight(x0, y0, x1, y1);
+    }
+
+    /**
+     * Samples the distance field at (x, y).
+     * @param gradientOut receives the direction away from the closest rectangle, not normalised
+     * @return the distance to the closest rectangle, negative inside one, capped at 128
+     */
+    public float sampleDistance(float x, float y, Vector2 gradientOut) {
+        return distanceField.sample(x, y, gradientOut);
+    }
+
+    public OccupancyGrid getOccupancyGrid() {
+        return occupancyGrid;
+    }
+
+    /**
+     * Casts the segment (x0, y0)-(x1, y1) against the collision rectangles grown by
+     * inflateX/inflateY on each side, which is how a moving box of that half size is swept.
+     * @return the fraction along the segment of the earliest hit, or -1 if nothing is hit
+     */
+    public float castSegment(float x0, float y0, float x1, float y1, float inflateX, float inflateY) {
+        int stamp = nextStamp();
+        float earliest = -1f;
+        int minX = cellX(Math.min(x0, x1) - inflateX), maxX = cellX(Math.max(x0, x1) + inflateX);
+        int minY = cellY(Math.min(y0, y1) - inflateY), maxY = cellY(Math.max(y0, y1) + inflateY);
+        for (int cy = minY; cy <= maxY; cy++) {
+            for (int cx = minX; cx <= maxX; cx++) {
+                IntArray cell = cells[cy * columns + cx];
+                for (int i = 0; i < cell.size; i++) {
+                    int index = cell.items[i];
+                    if (queryMarks[index] == stamp) continue;
+                    queryMarks[index] = stamp;
+                    Rectangle rect = slots[index];
+                    float fraction = segmentEntry(x0, y0, x1, y1,
+                            rect.x - inflateX, rect.y - inflateY,
+                            rect.x + rect.width + inflateX, rect.y + rect.height + inflateY);
+                    if (fraction >= 0 && (earliest < 0 || fraction < earliest)) {
+                        earliest = fraction;
+                    }
+                }
+            }
+        }
+        return earliest;
+    }
+
+    /**
+     * Slab test of the segment (x0, y0)-(x1, y1) against an axis aligned box.
+     * @return the fraction along the segment where it enters the box, 0 if it starts inside, or -1 if it misses
+     */
+    public static float segmentEntry(float x0, float y0, float x1, float y1,
+                                     float minX, float minY, float maxX, float maxY) {
+        float tEnter = 0f;
+        float tExit = 1f;
+
+        float dx = x1 - x0;
+        if (Math.abs(dx) < MathUtils.FLOAT_ROUNDING_ERROR) {
+            if (x0 < minX || x0 > maxX) return -1f;
+        } else {
+            float t1 = (minX - x0) / dx;
+            float t2 = (maxX - x0) / dx;
+            tEnter = Math.max(tEnter, Math.min(t1, t2));
+            tExit = Math.min(tExit, Math.max(t1, t2));
+            if (tEnter > tExit) return -1f;
+        }
+
+        float dy = y1 - y0;
+        if (Math.abs(dy) < MathUtils.FLOAT_ROUNDING_ERROR) {
+            if (y0 < minY || y0 > maxY) return -1f;
+        } else {
+            float t1 = (minY - y0) / dy;
+            float t2 = (maxY - y0) / dy;
+            tEnter = Math.max(tEnter, Math.min(t1, t2));
+            tExit = Math.min(tExit, Math.max(t1, t2));
+            if (tEnter > tExit) return -1f;
+        }
+        return tEnter;
+    }
+
+    private int allocateSlot() {
+        int slot;
+        if (freeSlots.size > 0) {
+            slot = freeSlots.pop();
+        } else {
+            if (slotCount == slots.length) {
+                slots = Arrays.copyOf(slots, slotCount * 2);
+                generations = Arrays.copyOf(generations, slotCount * 2);
+                queryMarks = Arrays.copyOf(queryMarks, slotCount * 2);
+            }
+            slot = slotCount++;
+        }
+        generations[slot] = (generations[slot] + 1) & 0xFFFF;
+        return slot;
+    }
+
+    private void indexRectangle(int slot) {
+        Rectangle rect = slots[slot];
+        int minX = cellX(rect.x), maxX = cellX(rect.x + rect.width);
+        int minY = cellY(rect.y), maxY = cellY(rect.y + rect.height);
+        for (int cy = minY; cy <= maxY; cy++) {
+            for (int cx = minX; cx <= maxX; cx++) {
+                cells[cy * columns + cx].add(slot);
+            }
+        }
+    }
+
+    private void unindexRectangle(int slot) {
+        Rectangle rect = slots[slot];
+        int minX = cellX(rect.x), maxX = cellX(rect.x + rect.width);
+        int minY = cellY(rect.y), maxY = cellY(rect.y + rect.height);
+        for (int cy = minY; cy <= maxY; cy++) {
+            for (int cx = minX; cx <= maxX; cx++) {
+                cells[cy * columns + cx].removeValue(slot);
+            }
+        }
+    }
+
+    private int nextStamp() {
+        if (queryStamp == Integer.MAX_VALUE) {
+            Arrays.fill(queryMarks, 0);
+            queryStamp = 0;
+        }
+        return ++queryStamp;
+    }
+
+    private int cellX(float x) {
+        return MathUtils.clamp((int) Math.floor(x / CELL_SIZE), 0, columns - 1);
+    }
+
+    private int cellY(float y) {
+        return MathUtils.clamp((int) Math.floor(y / CELL_SIZE), 0, rows - 1);
     }
 }
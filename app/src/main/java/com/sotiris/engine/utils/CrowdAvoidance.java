@@ -0,0 +1,288 @@
+package com.sotiris.engine.utils;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.utils.Align;
+import com.badlogic.gdx.utils.Array;
+import com.sotiris.engine.entities.Enemy;
+
+/**
+ * CrowdAvoidance computes collision-free enemy velocities with ORCA (optimal reciprocal
+ * collision avoidance, as in RVO2). Each agent looks at no more than MAX_NEIGHBOURS of the
+ * nearest enemies from the EntityGrid, builds one half-plane of allowed velocities per
+ * neighbour and picks the allowed velocity closest to the one it wants. All buffers are
+ * preallocated, so the cost per agent is bounded and nothing is allocated per frame.
+ * Not thread safe, call it from the stage update only.
+ */
+public class CrowdAvoidance {
+    private static final int MAX_NEIGHBOURS = 8;
+    private static final float NEIGHBOUR_DISTANCE = 250f;
+    private static final float TIME_HORIZON = 1f;
+    private static final float EPSILON = 0.00001f;
+
+    // Half-planes: a point on the line and its direction, allowed velocities lie on the left
+    private static class Lines {
+        final float[] pointX = new float[MAX_NEIGHBOURS];
+        final float[] pointY = new float[MAX_NEIGHBOURS];
+        final float[] directionX = new float[MAX_NEIGHBOURS];
+        final float[] directionY = new float[MAX_NEIGHBOURS];
+        int size;
+    }
+
+    private final EntityGrid entityGrid;
+    private final Array<Actor> candidates = new Array<>();
+    private final Enemy[] neighbours = new Enemy[MAX_NEIGHBOURS];
+    private final float[] neighbourDistances = new float[MAX_NEIGHBOURS];
+    private int neighbourCount;
+    private final Vector2 neighbourVelocity = new Vector2();
+
+    private final Lines orcaLines = new Lines();
+    private final Lines projectedLines = new Lines();
+    private float resultX;
+    private float resultY;
+
+    public CrowdAvoidance(EntityGrid entityGrid) {
+        this.entityGrid = entityGrid;
+    }
+
+    /**
+     * Writes into out the velocity closest to preferredVelocity that avoids the neighbouring
+     * enemies for TIME_HORIZON seconds. Neighbours standing still are not expected to give
+     * way, the agent then takes the full avoidance effort instead of half.
+     */
+    public void computeVelocity(Enemy self, float x, float y, Vector2 velocity, Vector2 preferredVelocity,
+                                float radius, float maxSpeed, float timeStep, Vector2 out) {
+        findNeighbours(self, x, y);
+
+        orcaLines.size = 0;
+        float invTimeHorizon = 1f / TIME_HORIZON;
+        for (int n = 0; n < neighbourCount; n++) {
+            Enemy other = neighbours[n];
+            other.getVelocity(neighbourVelocity);
+            float otherRadius = other.getAvoidanceRadius();
+
+            float relativePositionX = other.getX(Align.center) - x;
+            float relativePositionY = other.getY(Align.center) - y;
+            float relativeVelocityX = velocity.x - neighbourVelocity.x;
+            float relativeVelocityY = velocity.y - neighbourVelocity.y;
+            float distSq = relativePositionX * relativePositionX + relativePositionY * relativePositionY;
+            float combinedRadius = radius + otherRadius;
+            float combinedRadiusSq = combinedRadius * combinedRadius;
+
+            float directionX, directionY, uX, uY;
+            if (distSq > combinedRadiusSq) {
+                // No collision yet, w is the vector from the cutoff centre to the relative velocity
+                float wX = relativeVelocityX - invTimeHorizon * relativePositionX;
+                float wY = relativeVelocityY - invTimeHorizon * relativePositionY;
+                float wLengthSq = wX * wX + wY * wY;
+                float dotProduct1 = wX * relativePositionX + wY * relativePositionY;
+
+                if (dotProduct1 < 0f && dotProduct1 * dotProduct1 > combinedRadiusSq * wLengthSq) {
+                    // Project on the cutoff circle
+                    float wLength = (float) Math.sqrt(wLengthSq);
+                    float unitWX = wX / wLength;
+                    float unitWY = wY / wLength;
+                    directionX = unitWY;
+                    directionY = -unitWX;
+                    float scale = combinedRadius * invTimeHorizon - wLength;
+                    uX = scale * unitWX;
+                    uY = scale * unitWY;
+                } else {
+                    // Project on the legs of the velocity obstacle
+                    float leg = (float) Math.sqrt(distSq - combinedRadiusSq);
+                    if (det(relativePositionX, relativePositionY, wX, wY) > 0f) {
+                        directionX = (relativePositionX * leg - relativePositionY * combinedRadius) / distSq;
+                        directionY = (relativePositionX * combinedRadius + relativePositionY * leg) / distSq;
+                    } else {
+                        directionX = -(relativePositionX * leg + relativePositionY * combinedRadius) / distSq;
+                        directionY = -(-relativePositionX * combinedRadius + relativePositionY * leg) / distSq;
+                    }
+                    float dotProduct2 = relativeVelocityX * directionX + relativeVelocityY * directionY;
+                    uX = dotProduct2 * directionX - relativeVelocityX;
+                    uY = dotProduct2 * directionY - relativeVelocityY;
+                }
+            } else {
+                // Already overlapping, resolve within one time step
+                float invTimeStep = 1f / timeStep;
+                float wX = relativeVelocityX - invTimeStep * relativePositionX;
+                float wY = relativeVelocityY - invTimeStep * relativePositionY;
+                float wLength = (float) Math.sqrt(wX * wX + wY * wY);
+                if (wLength < EPSILON) continue;
+                float unitWX = wX / wLength;
+                float unitWY = wY / wLength;
+                directionX = unitWY;
+                directionY = -unitWX;
+                float scale = combinedRadius * invTimeStep - wLength;
+                uX = scale * unitWX;
+                uY = scale * unitWY;
+            }
+
+            float share = neighbourVelocity.isZero() ? 1f : 0.5f;
+            int line = orcaLines.size++;
+            orcaLines.pointX[line] = velocity.x + share * uX;
+            orcaLines.pointY[line] = velocity.y + share * uY;
+            orcaLines.directionX[line] = directionX;
+            orcaLines.directionY[line] = directionY;
+        }
+
+        int lineFail = linearProgram2(orcaLines, maxSpeed, preferredVelocity.x, preferredVelocity.y, false);
+        if (lineFail < orcaLines.size) {
+            linearProgram3(orcaLines, lineFail, maxSpeed);
+        }
+        out.set(resultX, resultY);
+    }
+
+    // Keeps the MAX_NEIGHBOURS closest enemies, sorted by distance
+    private void findNeighbours(Enemy self, float x, float y) {
+        neighbourCount = 0;
+        entityGrid.queryRadius(x, y, NEIGHBOUR_DISTANCE, candidates);
+        for (int i = 0; i < candidates.size; i++) {
+            Actor actor = candidates.get(i);
+            if (!(actor instanceof Enemy) || actor == self || ((Enemy) actor).isDead()) continue;
+
+            float dx = actor.getX(Align.center) - x;
+            float dy = actor.getY(Align.center) - y;
+            float distSq = dx * dx + dy * dy;
+            if (neighbourCount == MAX_NEIGHBOURS && distSq >= neighbourDistances[MAX_NEIGHBOURS - 1]) continue;
+
+            int slot = neighbourCount < MAX_NEIGHBOURS ? neighbourCount++ : MAX_NEIGHBOURS - 1;
+            while (slot > 0 && neighbourDistances[slot - 1] > distSq) {
+                neighbours[slot] = neighbours[slot - 1];
+                neighbourDistances[slot] = neighbourDistances[slot - 1];
+                slot--;
+            }
+            neighbours[slot] = (Enemy) actor;
+            neighbourDistances[slot] = distSq;
+        }
+        candidates.clear();
+    }
+
+    // Optimises along one line, subject to the previous lines and the speed circle
+    private boolean linearProgram1(Lines lines, int lineNo, float radius, float optX, float optY, boolean directionOpt) {
+        float pointX = lines.pointX[lineNo], pointY = lines.pointY[lineNo];
+        float directionX = lines.directionX[lineNo], directionY = lines.directionY[lineNo];
+
+        float dotProduct = pointX * directionX + pointY * directionY;
+        float discriminant = dotProduct * dotProduct + radius * radius - (pointX * pointX + pointY * pointY);
+        if (discriminant < 0f) {
+            // The speed circle fully invalidates this line
+            return false;
+        }
+        float sqrtDiscriminant = (float) Math.sqrt(discriminant);
+        float tLeft = -dotProduct - sqrtDiscriminant;
+        float tRight = -dotProduct + sqrtDiscriminant;
+
+        for (int i = 0; i < lineNo; i++) {
+            float denominator = det(directionX, directionY, lines.directionX[i], lines.directionY[i]);
+            float numerator = det(lines.directionX[i], lines.directionY[i],
+                    pointX - lines.pointX[i], pointY - lines.pointY[i]);
+            if (Math.abs(denominator) <= EPSILON) {
+                // Lines are parallel
+                if (numerator < 0f) return false;
+                continue;
+            }
+            float t = numerator / denominator;
+            if (denominator >= 0f) {
+                tRight = Math.min(tRight, t);
+            } else {
+                tLeft = Math.max(tLeft, t);
+            }
+            if (tLeft > tRight) return false;
+        }
+
+        float t;
+        if (directionOpt) {
+            t = optX * directionX + optY * directionY > 0f ? tRight : tLeft;
+        } else {
+            t = directionX * (optX - pointX) + directionY * (optY - pointY);
+            if (t < tLeft) {
+                t = tLeft;
+            } else if (t > tRight) {
+                t = tRight;
+            }
+        }
+        resultX = pointX + t * directionX;
+        resultY = pointY + t * directionY;
+        return true;
+    }
+
+    // Returns the index of the first line that could not be satisfied, lines.size on success
+    private int linearProgram2(Lines lines, float radius, float optX, float optY, boolean directionOpt) {
+        if (directionOpt) {
+            // The optimisation direction is a unit vector here
+            resultX = optX * radius;
+            resultY = optY * radius;
+        } else if (optX * optX + optY * optY > radius * radius) {
+            float length = (float) Math.sqrt(optX * optX + optY * optY);
+            resultX = optX / length * radius;
+            resultY = optY / length * radius;
+        } else {
+            resultX = optX;
+            resultY = optY;
+        }
+
+        for (int i = 0; i < lines.size; i++) {
+            if (det(lines.directionX[i], lines.directionY[i],
+                    lines.pointX[i] - resultX, lines.pointY[i] - resultY) > 0f) {
+                float tempX = resultX, tempY = resultY;
+                if (!linearProgram1(lines, i, radius, optX, optY, directionOpt)) {
+                    resultX = tempX;
+                    resultY = tempY;
+                    return i;
+                }
+            }
+        }
+        return lines.size;
+    }
+
+    // Infeasible case, finds the velocity that minimally violates the remaining lines
+    private void linearProgram3(Lines lines, int beginLine, float radius) {
+        float distance = 0f;
+        for (int i = beginLine; i < lines.size; i++) {
+            float directionX = lines.directionX[i], directionY = lines.directionY[i];
+            float pointX = lines.pointX[i], pointY = lines.pointY[i];
+            if (det(directionX, directionY, pointX - resultX, pointY - resultY) <= distance) continue;
+
+            projectedLines.size = 0;
+            for (int j = 0; j < i; j++) {
+                float determinant = det(directionX, directionY, lines.directionX[j], lines.directionY[j]);
+                float projectedX, projectedY;
+                if (Math.abs(determinant) <= EPSILON) {
+                    if (directionX * lines.directionX[j] + directionY * lines.directionY[j] > 0f) {
+                        // Same direction
+                        continue;
+                    }
+                    projectedX = 0.5f * (pointX + lines.pointX[j]);
+                    projectedY = 0.5f * (pointY + lines.pointY[j]);
+                } else {
+                    float t = det(lines.directionX[j], lines.directionY[j],
+                            pointX - lines.pointX[j], pointY - lines.pointY[j]) / determinant;
+                    projectedX = pointX + t * directionX;
+                    projectedY = pointY + t * directionY;
+                }
+                float newDirectionX = lines.directionX[j] - directionX;
+                float newDirectionY = lines.directionY[j] - directionY;
+                float length = (float) Math.sqrt(newDirectionX * newDirectionX + newDirectionY * newDirectionY);
+                if (length < EPSILON) continue;
+
+                int line = projectedLines.size++;
+                projectedLines.pointX[line] = projectedX;
+                projectedLines.pointY[line] = projectedY;
+                projectedLines.directionX[line] = newDirectionX / length;
+                projectedLines.directionY[line] = newDirectionY / length;
+            }
+
+            float tempX = resultX, tempY = resultY;
+            if (linearProgram2(projectedLines, radius, -directionY, directionX, true) < projectedLines.size) {
+                // Should not happen, the result is by definition feasible for the projected lines
+                resultX = tempX;
+                resultY = tempY;
+            }
+            distance = det(directionX, directionY, pointX - resultX, pointY - resultY);
+        }
+    }
+
+    private static float det(float ax, float ay, float bx, float by) {
+        return ax * by - ay * bx;
+    }
+}
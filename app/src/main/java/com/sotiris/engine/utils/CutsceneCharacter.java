@@ -104,8 +104,8 @@ public class CutsceneCharacter extends Actor {
 
     private void loadAnimations() {
         // Load walk animations
-        Texture walkTexture = new Texture(Gdx.files.internal("enemy/enemy_walk_gun.png"));
-        TextureRegion[][] tmpWalk = TextureRegion.split(walkTexture, 48, 64);
+        TextureAtlas enemyAtlas = assetManager.get(Atlases.ENEMY, TextureAtlas.class);
+        TextureRegion[][] tmpWalk = Atlases.findRegion(enemyAtlas, "enemy_walk_gun").split(48, 64);
 
         walkAnimations = new Animation[8];
         for (int i = 0; i < 8; i++) {
@@ -113,8 +113,7 @@ public class CutsceneCharacter extends Actor {
         }
 
         // Load idle animation
-        Texture idleTexture = new Texture(Gdx.files.internal("enemy/enemy_idle.png"));
-        TextureRegion[][] tmpIdle = TextureRegion.split(idleTexture, 48, 64);
+        TextureRegion[][] tmpIdle = Atlases.findRegion(enemyAtlas, "enemy_idle").split(48, 64);
         idleAnimation = new Animation<>(0.1f, tmpIdle[0]);  // Assuming idle has one row
     }
 
@@ -0,0 +1,154 @@
+package com.sotiris.engine.utils;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+
+import java.util.Arrays;
+
+/**
+ * DistanceField stores, for the centre of every cell, the signed distance to the closest
+ * collision rectangle (negative inside) clamped to maxDistance, plus its gradient. Adding a
+ * rectangle only touches the cells within maxDistance of it, removing one rebuilds that same
+ * region from the remaining rectangles. Sampling is a bilinear lookup and does not allocate.
+ */
+public class DistanceField {
+    private final float cellSize;
+    private final float maxDistance;
+    private final int columns;
+    private final int rows;
+    private final float[] distances;
+    private final float[] gradientX;
+    private final float[] gradientY;
+
+    public DistanceField(float worldWidth, float worldHeight, float cellSize, float maxDistance) {
+        this.cellSize = cellSize;
+        this.maxDistance = maxDistance;
+        this.columns = Math.max(2, MathUtils.ceil(worldWidth / cellSize));
+        this.rows = Math.max(2, MathUtils.ceil(worldHeight / cellSize));
+        this.distances = new float[columns * rows];
+        this.gradientX = new float[columns * rows];
+        this.gradientY = new float[columns * rows];
+        clear();
+    }
+
+    public void clear() {
+        Arrays.fill(distances, maxDistance);
+        Arrays.fill(gradientX, 0f);
+        Arrays.fill(gradientY, 0f);
+    }
+
+    /**
+     * Lowers the distances around the rectangle, used when a rectangle is added.
+     */
+    public void stamp(Rectangle rect) {
+        int minX = cellX(rect.x - maxDistance), maxX = cellX(rect.x + rect.width + maxDistance);
+        int minY = cellY(rect.y - maxDistance), maxY = cellY(rect.y + rect.height + maxDistance);
+        for (int cy = minY; cy <= maxY; cy++) {
+            for (int cx = minX; cx <= maxX; cx++) {
+                int index = cy * columns + cx;
+                distances[index] = Math.min(distances[index], signedDistance(rect, centreX(cx), centreY(cy)));
+            }
+        }
+        updateGradient(minX - 1, minY - 1, maxX + 1, maxY + 1);
+    }
+
+    /**
+     * Recomputes the cells around area from sources, used when a rectangle is removed.
+     * Sources must hold every rectangle within 2 * maxDistance of area.
+     */
+    public void rebuild(Rectangle area, Array<Rectangle> sources) {
+        int minX = cellX(area.x - maxDistance), maxX = cellX(area.x + area.width + maxDistance);
+        int minY = cellY(area.y - maxDistance), maxY = cellY(area.y + area.height + maxDistance);
+        for (int cy = minY; cy <= maxY; cy++) {
+            for (int cx = minX; cx <= maxX; cx++) {
+                float x = centreX(cx), y = centreY(cy);
+                float distance = maxDistance;
+                for (int i = 0; i < sources.size; i++) {
+                    distance = Math.min(distance, signedDistance(sources.get(i), x, y));
+                }
+                distances[cy * columns + cx] = distance;
+            }
+        }
+        updateGradient(minX - 1, minY - 1, maxX + 1, maxY + 1);
+    }
+
+    /**
+     * Bilinearly samples the field at (x, y).
+     * @param gradientOut receives the gradient, pointing away from the closest obstacle
+     * @return the signed distance to the closest obstacle, at most maxDistance
+     */
+    public float sample(float x, float y, Vector2 gradientOut) {
+        float fx = MathUtils.clamp(x / cellSize - 0.5f, 0f, columns - 1);
+        float fy = MathUtils.clamp(y / cellSize - 0.5f, 0f, rows - 1);
+        int x0 = Math.min((int) fx, columns - 2);
+        int y0 = Math.min((int) fy, rows - 2);
+        float tx = fx - x0;
+        float ty = fy - y0;
+
+        int i00 = y0 * columns + x0;
+        int i10 = i00 + 1;
+        int i01 = i00 + columns;
+        int i11 = i01 + 1;
+        float w00 = (1 - tx) * (1 - ty), w10 = tx * (1 - ty), w01 = (1 - tx) * ty, w11 = tx * ty;
+
+        gradientOut.set(
+                gradientX[i00] * w00 + gradientX[i10] * w10 + gradientX[i01] * w01 + gradientX[i11] * w11,
+                gradientY[i00] * w00 + gradientY[i10] * w10 + gradientY[i01] * w01 + gradientY[i11] * w11);
+        return distances[i00] * w00 + distances[i10] * w10 + distances[i01] * w01 + distances[i11] * w11;
+    }
+
+    public float getMaxDistance() {
+        return maxDistance;
+    }
+
+    // Central differences, one sided on the border of the map
+    private void updateGradient(int minX, int minY, int maxX, int maxY) {
+        minX = Math.max(minX, 0);
+        minY = Math.max(minY, 0);
+        maxX = Math.min(maxX, columns - 1);
+        maxY = Math.min(maxY, rows - 1);
+        for (int cy = minY; cy <= maxY; cy++) {
+            int up = Math.min(cy + 1, rows - 1), down = Math.max(cy - 1, 0);
+            for (int cx = minX; cx <= maxX; cx++) {
+                int right = Math.min(cx + 1, columns - 1), left = Math.max(cx - 1, 0);
+                int index = cy * columns + cx;
+                gradientX[index] = (distances[cy * columns + right] - distances[cy * columns + left])
+                        / ((right - left) * cellSize);
+                gradientY[index] = (distances[up * columns + cx] - distances[down * columns + cx])
+                        / ((up - down) * cellSize);
+            }
+        }
+    }
+
+    private static float signedDistance(Rectangle rect, float x, float y) {
+        float maxX = rect.x + rect.width;
+        float maxY = rect.y + rect.height;
+        float dx = Math.max(rect.x - x, x - maxX);
+        float dy = Math.max(rect.y - y, y - maxY);
+        if (dx <= 0 && dy <= 0) {
+            // Inside, the distance to the nearest edge as a negative value
+            return Math.max(dx, dy);
+        }
+        float ox = Math.max(dx, 0f);
+        float oy = Math.max(dy, 0f);
+        return (float) Math.sqrt(ox * ox + oy * oy);
+    }
+
+    private float centreX(int cx) {
+        return (cx + 0.5f) * cellSize;
+    }
+
+    private float centreY(int cy) {
+        return (cy + 0.5f) * cellSize;
+    }
+
+    private int cellX(float x) {
+        return MathUtils.clamp((int) Math.floor(x / cellSize), 0, columns - 1);
+    }
+
+    private int cellY(float y) {
+        return MathUtils.clamp((int) Math.floor(y / cellSize), 0, rows - 1);
+    }
+}
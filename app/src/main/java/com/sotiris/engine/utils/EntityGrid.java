@@ -0,0 +1,113 @@
+package com.sotiris.engine.utils;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * EntityGrid is a broadphase for the moving entities of the game stage (player and enemies).
+ * Entities push their centre once per tick with update() and combat and separation code
+ * asks for neighbours within a radius instead of scanning every actor on the stage.
+ */
+public class EntityGrid {
+    private static final float CELL_SIZE = 128f;
+
+    private static class Entry {
+        float x;
+        float y;
+        int cell;
+    }
+
+    private final int columns;
+    private final int rows;
+    private final Array<Actor>[] cells;
+    private final ObjectMap<Actor, Entry> entries;
+
+    @SuppressWarnings("unchecked")
+    public EntityGrid(float worldWidth, float worldHeight) {
+        columns = Math.max(1, MathUtils.ceil(worldWidth / CELL_SIZE));
+        rows = Math.max(1, MathUtils.ceil(worldHeight / CELL_SIZE));
+        cells = new Array[columns * rows];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = new Array<>(false, 8, Actor.class);
+        }
+        entries = new ObjectMap<>();
+    }
+
+    /**
+     * Registers the actor on first call, afterwards moves it to the cell of its new centre.
+     */
+    public void update(Actor actor, float x, float y) {
+        int cell = cellIndex(x, y);
+        Entry entry = entries.get(actor);
+        if (entry == null) {
+            entry = new Entry();
+            entry.cell = cell;
+            entries.put(actor, entry);
+            cells[cell].add(actor);
+        } else if (entry.cell != cell) {
+            cells[entry.cell].removeValue(actor, true);
+            cells[cell].add(actor);
+            entry.cell = cell;
+        }
+        entry.x = x;
+        entry.y = y;
+    }
+
+    public void remove(Actor actor) {
+        Entry entry = entries.remove(actor);
+        if (entry != null) {
+            cells[entry.cell].removeValue(actor, true);
+        }
+    }
+
+    public void clear() {
+        for (Array<Actor> cell : cells) {
+            cell.clear();
+        }
+        entries.clear();
+    }
+
+    /**
+     * Collects every registered actor whose centre lies within radius of (x, y) into out.
+     * @return the number of actors found
+     */
+    public int queryRadius(float x, float y, float radius, Array<Actor> out) {
+        out.clear();
+        float radiusSq = radius * radius;
+        int minX = cellX(x - radius), maxX = cellX(x + radius);
+        int minY = cellY(y - radius), maxY = cellY(y + radius);
+        for (int cy = minY; cy <= maxY; cy++) {
+            for (int cx = minX; cx <= maxX; cx++) {
+                Array<Actor> cell = cells[cy * columns + cx];
+                for (int i = 0; i < cell.size; i++) {
+                    Actor actor = cell.items[i];
+                    Entry entry = entries.get(actor);
+                    float dx = entry.x - x;
+                    float dy = entry.y - y;
+                    if (dx * dx + dy * dy <= radiusSq) {
+                        out.add(actor);
+                    }
+                }
+            }
+        }
+        return out.size;
+    }
+
+    public int size() {
+        return entries.size;
+    }
+
+    private int cellIndex(float x, float y) {
+        return cellY(y) * columns + cellX(x);
+    }
+
+    private int cellX(float x) {
+        return MathUtils.clamp((int) Math.floor(x / CELL_SIZE), 0, columns - 1);
+    }
+
+    private int cellY(float y) {
+        return MathUtils.clamp((int) Math.floor(y / CELL_SIZE), 0, rows - 1);
+    }
+}
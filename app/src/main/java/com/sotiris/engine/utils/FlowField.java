@@ -0,0 +1,215 @@
+package com.sotiris.engine.utils;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+
+import java.util.Arrays;
+
+/**
+ * FlowField holds one Dijkstra field over the tile grid towards a single target (the player).
+ * The field is only recomputed when the target moves to another tile or the collision data
+ * changes, every cell then stores the direction of its cheapest neighbour so enemies read
+ * their desired heading in O(1), however many of them there are.
+ */
+public class FlowField {
+    private static final int STRAIGHT_COST = 10;
+    private static final int DIAGONAL_COST = 14;
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+    // A few pixels of slack so rectangles only grazing a tile do not close it
+    private static final float CELL_INSET = 4f;
+
+    private static final int[] NEIGHBOUR_X = {1, -1, 0, 0, 1, 1, -1, -1};
+    private static final int[] NEIGHBOUR_Y = {0, 0, 1, -1, 1, -1, 1, -1};
+
+    private final CollisionManager collisionManager;
+    private final float cellSize;
+    private final int columns;
+    private final int rows;
+
+    private final boolean[] blocked;
+    private final int[] costs;
+    private final float[] directionX;
+    private final float[] directionY;
+
+    // Binary heap of (cell, cost) pairs, sized for every push a full pass can make
+    private final int[] heap;
+    private final int[] heapCosts;
+    private int heapSize;
+
+    private int targetCell = -1;
+    private int collisionVersion = -1;
+
+    private final Rectangle cellArea = new Rectangle();
+    private final Array<Rectangle> cellRects = new Array<>();
+
+    public FlowField(CollisionManager collisionManager, float worldWidth, float worldHeight, float cellSize) {
+        this.collisionManager = collisionManager;
+        this.cellSize = cellSize;
+        this.columns = Math.max(1, MathUtils.ceil(worldWidth / cellSize));
+        this.rows = Math.max(1, MathUtils.ceil(worldHeight / cellSize));
+        int count = columns * rows;
+        this.blocked = new boolean[count];
+        this.costs = new int[count];
+        this.directionX = new float[count];
+        this.directionY = new float[count];
+        this.heap = new int[count * NEIGHBOUR_X.length + 1];
+        this.heapCosts = new int[heap.length];
+    }
+
+    /**
+     * Recomputes the field if the target changed tile or rectangles were added or removed
+     * since the last call. Cheap to call every frame.
+     */
+    public void update(float targetX, float targetY) {
+        int cell = cellY(targetY) * columns + cellX(targetX);
+        int version = collisionManager.getVersion();
+        if (cell == targetCell && version == collisionVersion) return;
+
+        if (version != collisionVersion) {
+            rebuildBlocked();
+            collisionVersion = version;
+        }
+        targetCell = cell;
+        computeCosts();
+        computeDirections();
+    }
+
+    /**
+     * Forces a full rebuild on the next update(), used on mission restart.
+     */
+    public void invalidate() {
+        targetCell = -1;
+        collisionVersion = -1;
+    }
+
+    /**
+     * Writes the normalised direction towards the target at (x, y) into out.
+     * @return false when standing on the target tile or when the target cannot be reached,
+     * callers should then steer straight at the target
+     */
+    public boolean getDirection(float x, float y, Vector2 out) {
+        if (targetCell < 0) return false;
+        int index = cellY(y) * columns + cellX(x);
+        if (index == targetCell || (directionX[index] == 0 && directionY[index] == 0)) return false;
+        out.set(directionX[index], directionY[index]);
+        return true;
+    }
+
+    private void rebuildBlocked() {
+        for (int cy = 0; cy < rows; cy++) {
+            for (int cx = 0; cx < columns; cx++) {
+                cellArea.set(cx * cellSize + CELL_INSET, cy * cellSize + CELL_INSET,
+                        cellSize - CELL_INSET * 2, cellSize - CELL_INSET * 2);
+                blocked[cy * columns + cx] = collisionManager.queryRect(cellArea, cellRects) > 0;
+            }
+        }
+    }
+
+    private void computeCosts() {
+        Arrays.fill(costs, UNREACHABLE);
+        heapSize = 0;
+        costs[targetCell] = 0;
+        push(targetCell, 0);
+
+        while (heapSize > 0) {
+            int cost = heapCosts[0];
+            int index = pop();
+            if (cost > costs[index]) continue;
+            int cx = index % columns;
+            int cy = index / columns;
+            for (int n = 0; n < NEIGHBOUR_X.length; n++) {
+                int nx = cx + NEIGHBOUR_X[n];
+                int ny = cy + NEIGHBOUR_Y[n];
+                if (!isOpen(nx, ny)) continue;
+                boolean diagonal = n >= 4;
+                // No corner cutting, both orthogonal neighbours have to be open
+                if (diagonal && (!isOpen(nx, cy) || !isOpen(cx, ny))) continue;
+                int neighbour = ny * columns + nx;
+                int newCost = cost + (diagonal ? DIAGONAL_COST : STRAIGHT_COST);
+                if (newCost < costs[neighbour]) {
+                    costs[neighbour] = newCost;
+                    push(neighbour, newCost);
+                }
+            }
+        }
+    }
+
+    private void computeDirections() {
+        for (int cy = 0; cy < rows; cy++) {
+            for (int cx = 0; cx < columns; cx++) {
+                int index = cy * columns + cx;
+                // Blocked tiles still point at their cheapest open neighbour so stuck enemies walk out
+                int best = blocked[index] ? UNREACHABLE : costs[index];
+                int bestX = 0, bestY = 0;
+                for (int n = 0; n < NEIGHBOUR_X.length; n++) {
+                    int nx = cx + NEIGHBOUR_X[n];
+                    int ny = cy + NEIGHBOUR_Y[n];
+                    if (!isOpen(nx, ny)) continue;
+                    if (n >= 4 && (!isOpen(nx, cy) || !isOpen(cx, ny))) continue;
+                    int cost = costs[ny * columns + nx];
+                    if (cost < best) {
+                        best = cost;
+                        bestX = NEIGHBOUR_X[n];
+                        bestY = NEIGHBOUR_Y[n];
+                    }
+                }
+                float length = (float) Math.sqrt(bestX * bestX + bestY * bestY);
+                directionX[index] = length > 0 ? bestX / length : 0f;
+                directionY[index] = length > 0 ? bestY / length : 0f;
+            }
+        }
+    }
+
+    private boolean isOpen(int cx, int cy) {
+        return cx >= 0 && cx < columns && cy >= 0 && cy < rows && !blocked[cy * columns + cx];
+    }
+
+    // Duplicates are allowed, stale entries are skipped by the cost check in computeCosts
+    private void push(int index, int cost) {
+        int i = heapSize++;
+        heap[i] = index;
+        heapCosts[i] = cost;
+        while (i > 0) {
+            int parent = (i - 1) >> 1;
+            if (heapCosts[parent] <= heapCosts[i]) break;
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private int pop() {
+        int top = heap[0];
+        heapSize--;
+        heap[0] = heap[heapSize];
+        heapCosts[0] = heapCosts[heapSize];
+        int i = 0;
+        while (true) {
+            int left = i * 2 + 1;
+            if (left >= heapSize) break;
+            int child = left + 1 < heapSize && heapCosts[left + 1] < heapCosts[left] ? left + 1 : left;
+            if (heapCosts[i] <= heapCosts[child]) break;
+            swap(i, child);
+            i = child;
+        }
+        return top;
+    }
+
+    private void swap(int a, int b) {
+        int tmp = heap[a];
+        heap[a] = heap[b];
+        heap[b] = tmp;
+        tmp = heapCosts[a];
+        heapCosts[a] = heapCosts[b];
+        heapCosts[b] = tmp;
+    }
+
+    private int cellX(float x) {
+        return MathUtils.clamp((int) Math.floor(x / cellSize), 0, columns - 1);
+    }
+
+    private int cellY(float y) {
+        return MathUtils.clamp((int) Math.floor(y / cellSize), 0, rows - 1);
+    }
+}
@@ -0,0 +1,66 @@
+package com.sotiris.engine.utils;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.FloatArray;
+
+/**
+ * HealthBarRenderer collects the health bars actors ask for while the stage draws and draws
+ * them all afterwards in one SpriteBatch pass, stretching a 1x1 white region. Actors never
+ * end the stage batch, so the number of flushes does not grow with the number of enemies.
+ */
+public class HealthBarRenderer {
+    // x, y, width, height, fraction, background, fill
+    private static final int STRIDE = 7;
+    private static final float OUTLINE = 1f;
+    private static final float OUTLINE_COLOR = Color.BLACK.toFloatBits();
+
+    private final TextureRegion white;
+    private final FloatArray bars = new FloatArray(STRIDE * 32);
+
+    public HealthBarRenderer(TextureRegion white) {
+        this.white = white;
+    }
+
+    /**
+     * Queues a bar in world coordinates, filled to fraction (0..1) of its width.
+     */
+    public void add(float x, float y, float width, float height, float fraction, Color background, Color fill) {
+        bars.add(x, y, width, height);
+        bars.add(MathUtils.clamp(fraction, 0f, 1f), background.toFloatBits(), fill.toFloatBits());
+    }
+
+    /**
+     * Draws and forgets the queued bars. The batch must be begun with the world camera's
+     * projection.
+     */
+    public void flush(Batch batch) {
+        float previousColor = batch.getPackedColor();
+        float[] items = bars.items;
+        for (int i = 0; i < bars.size; i += STRIDE) {
+            float x = items[i];
+            float y = items[i + 1];
+            float width = items[i + 2];
+            float height = items[i + 3];
+
+            batch.setPackedColor(items[i + 5]);
+            batch.draw(white, x, y, width, height);
+            batch.setPackedColor(items[i + 6]);
+            batch.draw(white, x, y, width * items[i + 4], height);
+
+            batch.setPackedColor(OUTLINE_COLOR);
+            batch.draw(white, x, y, width, OUTLINE);
+            batch.draw(white, x, y + height - OUTLINE, width, OUTLINE);
+            batch.draw(white, x, y, OUTLINE, height);
+            batch.draw(white, x + width - OUTLINE, y, OUTLINE, height);
+        }
+        batch.setPackedColor(previousColor);
+        bars.clear();
+    }
+
+    public void clear() {
+        bars.clear();
+    }
+}
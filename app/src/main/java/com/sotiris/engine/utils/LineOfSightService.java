@@ -0,0 +1,117 @@
+package com.sotiris.engine.utils;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntIntMap;
+
+/**
+ * LineOfSightService batches the enemies' line of sight checks against the player. Enemies
+ * file a Query during the update phase and read the answer of the previous batch, Demo calls
+ * resolve() once per frame after the stage has acted. Within a batch, results are shared by
+ * every query from the same source cell, and at most MAX_RAYS_PER_FRAME new rays are cast;
+ * queries left over keep their previous answer and are served first next frame.
+ */
+public class LineOfSightService {
+    private static final float CELL_SIZE = 32f;
+    private static final int MAX_RAYS_PER_FRAME = 32;
+    private static final int NOT_CACHED = -1;
+
+    /**
+     * One line of sight query, owned by the enemy that files it.
+     */
+    public static class Query {
+        private float x;
+        private float y;
+        private boolean visible;
+        private boolean pending;
+
+        public boolean isVisible() {
+            return visible;
+        }
+
+        /**
+         * Forgets the last answer, used when the owner is reused. A queued query stays queued.
+         */
+        public void reset() {
+            visible = false;
+        }
+    }
+
+    private final CollisionManager collisionManager;
+    private final int columns;
+    private final int rows;
+
+    private final Array<Query> pending = new Array<>(false, 32);
+    // Source cell -> 0 or 1 for the current batch, the player cell is the same for every entry
+    private final IntIntMap results = new IntIntMap();
+    private int raysLastFrame;
+
+    public LineOfSightService(CollisionManager collisionManager, float worldWidth, float worldHeight) {
+        this.collisionManager = collisionManager;
+        this.columns = Math.max(1, MathUtils.ceil(worldWidth / CELL_SIZE));
+        this.rows = Math.max(1, MathUtils.ceil(worldHeight / CELL_SIZE));
+    }
+
+    /**
+     * Files a query from (x, y) to the player. Filing again before it is answered only
+     * moves the source.
+     */
+    public void request(Query query, float x, float y) {
+        query.x = x;
+        query.y = y;
+        if (!query.pending) {
+            query.pending = true;
+            pending.add(query);
+        }
+    }
+
+    /**
+     * Answers the filed queries against the player position, within the ray budget.
+     */
+    public void resolve(float playerX, float playerY) {
+        results.clear();
+        int rays = 0;
+        int kept = 0;
+        for (int i = 0; i < pending.size; i++) {
+            Query query = pending.get(i);
+            int cell = cellIndex(query.x, query.y);
+            int cached = results.get(cell, NOT_CACHED);
+            if (cached == NOT_CACHED) {
+                if (rays == MAX_RAYS_PER_FRAME) {
+                    // Over budget, keep it queued with its previous answer
+                    pending.set(kept++, query);
+                    continue;
+                }
+                cached = collisionManager.hasLineOfSight(query.x, query.y, playerX, playerY) ? 1 : 0;
+                results.put(cell, cached);
+                rays++;
+            }
+            query.visible = cached == 1;
+            query.pending = false;
+        }
+        pending.truncate(kept);
+        raysLastFrame = rays;
+    }
+
+    public void clear() {
+        for (Query query : pending) {
+            query.pending = false;
+        }
+        pending.clear();
+        results.clear();
+    }
+
+    public int getPendingCount() {
+        return pending.size;
+    }
+
+    public int getRaysLastFrame() {
+        return raysLastFrame;
+    }
+
+    private int cellIndex(float x, float y) {
+        int cx = MathUtils.clamp((int) Math.floor(x / CELL_SIZE), 0, columns - 1);
+        int cy = MathUtils.clamp((int) Math.floor(y / CELL_SIZE), 0, rows - 1);
+        return cy * columns + cx;
+    }
+}
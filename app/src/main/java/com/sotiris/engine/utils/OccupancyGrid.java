@@ -0,0 +1,128 @@
+package com.sotiris.engine.utils;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
+
+import java.util.Arrays;
+
+/**
+ * OccupancyGrid is a bitmask over the map marking every cell touched by a collision rectangle.
+ * Baked rectangles set bits once, overlay rectangles are reference counted per cell so they
+ * can be added and removed in any order. Line of sight walks only the cells along the
+ * segment (DDA), so a query costs O(path length) and does not allocate.
+ */
+public class OccupancyGrid {
+    private final float cellSize;
+    private final int columns;
+    private final int rows;
+    private final long[] bits;
+    private final short[] overlayCounts;
+
+    public OccupancyGrid(float worldWidth, float worldHeight, float cellSize) {
+        this.cellSize = cellSize;
+        this.columns = Math.max(1, MathUtils.ceil(worldWidth / cellSize));
+        this.rows = Math.max(1, MathUtils.ceil(worldHeight / cellSize));
+        this.bits = new long[(columns * rows + 63) / 64];
+        this.overlayCounts = new short[columns * rows];
+    }
+
+    public void clear() {
+        Arrays.fill(bits, 0L);
+        Arrays.fill(overlayCounts, (short) 0);
+    }
+
+    /**
+     * Permanently marks every cell the rectangle overlaps as blocked.
+     */
+    public void mark(Rectangle rect) {
+        int minX = cellX(rect.x), maxX = cellX(rect.x + rect.width);
+        int minY = cellY(rect.y), maxY = cellY(rect.y + rect.height);
+        for (int cy = minY; cy <= maxY; cy++) {
+            for (int cx = minX; cx <= maxX; cx++) {
+                int index = cy * columns + cx;
+                bits[index >>> 6] |= 1L << (index & 63);
+            }
+        }
+    }
+
+    public void addOverlay(Rectangle rect) {
+        changeOverlay(rect, 1);
+    }
+
+    public void removeOverlay(Rectangle rect) {
+        changeOverlay(rect, -1);
+    }
+
+    private void changeOverlay(Rectangle rect, int delta) {
+        int minX = cellX(rect.x), maxX = cellX(rect.x + rect.width);
+        int minY = cellY(rect.y), maxY = cellY(rect.y + rect.height);
+        for (int cy = minY; cy <= maxY; cy++) {
+            for (int cx = minX; cx <= maxX; cx++) {
+                int index = cy * columns + cx;
+                overlayCounts[index] = (short) Math.max(0, overlayCounts[index] + delta);
+            }
+        }
+    }
+
+    public boolean isBlocked(int cx, int cy) {
+        if (cx < 0 || cx >= columns || cy < 0 || cy >= rows) return true;
+        int index = cy * columns + cx;
+        return (bits[index >>> 6] & (1L << (index & 63))) != 0 || overlayCounts[index] > 0;
+    }
+
+    public boolean isBlockedAt(float x, float y) {
+        return isBlocked(cellX(x), cellY(y));
+    }
+
+    /**
+     * Walks the cells between the two points. The cells holding the end points are skipped,
+     * the player and enemies stand next to walls and the grid is coarser than the rectangles.
+     */
+    public boolean hasLineOfSight(float x0, float y0, float x1, float y1) {
+        int cx = cellX(x0), cy = cellY(y0);
+        int endCx = cellX(x1), endCy = cellY(y1);
+
+        float dx = x1 - x0;
+        float dy = y1 - y0;
+        int stepX = dx > 0 ? 1 : -1;
+        int stepY = dy > 0 ? 1 : -1;
+        float tDeltaX = dx != 0 ? cellSize / Math.abs(dx) : Float.MAX_VALUE;
+        float tDeltaY = dy != 0 ? cellSize / Math.abs(dy) : Float.MAX_VALUE;
+        float tMaxX = dx != 0 ? ((dx > 0 ? (cx + 1) * cellSize : cx * cellSize) - x0) / dx : Float.MAX_VALUE;
+        float tMaxY = dy != 0 ? ((dy > 0 ? (cy + 1) * cellSize : cy * cellSize) - y0) / dy : Float.MAX_VALUE;
+
+        int steps = Math.abs(endCx - cx) + Math.abs(endCy - cy);
+        for (int i = 0; i < steps; i++) {
+            if (tMaxX < tMaxY) {
+                cx += stepX;
+                tMaxX += tDeltaX;
+            } else {
+                cy += stepY;
+                tMaxY += tDeltaY;
+            }
+            if (cx == endCx && cy == endCy) break;
+            if (isBlocked(cx, cy)) return false;
+        }
+        return true;
+    }
+
+    public float getCellSize() {
+        return cellSize;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int cellX(float x) {
+        return MathUtils.clamp((int) Math.floor(x / cellSize), 0, columns - 1);
+    }
+
+    public int cellY(float y) {
+        return MathUtils.clamp((int) Math.floor(y / cellSize), 0, rows - 1);
+    }
+}
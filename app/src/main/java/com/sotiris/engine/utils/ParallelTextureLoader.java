@@ -0,0 +1,128 @@
+package com.sotiris.engine.utils;
+
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.AsynchronousAssetLoader;
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
+import com.badlogic.gdx.assets.loaders.TextureLoader;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.TextureData;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.glutils.FileTextureData;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * ParallelTextureLoader replaces the AssetManager's TextureLoader. PNG and JPEG files are
+ * decoded by a PixmapDecodePool, ideally prefetched when they were queued, so the loader's
+ * async step only waits for a Pixmap that is usually ready. The GL upload stays in loadSync,
+ * on the render thread, in queue order and inside the budget given to AssetManager.update().
+ * Textures stay managed, they are read again from their file after a context loss. Where the
+ * build made an ETC copy the GPU supports, TextureVariants picks it instead of the PNG.
+ */
+public class ParallelTextureLoader extends AsynchronousAssetLoader<Texture, TextureLoader.TextureParameter> {
+    private final PixmapDecodePool decodePool;
+    private final TextureVariants variants;
+    // Prepared in loadAsync, consumed in loadSync, the AssetManager loads one asset at a time
+    private TextureData data;
+    // Scratch list for prefetch() and cancel(), both run on the render thread
+    private final Array<FileHandle> files = new Array<>();
+
+    public ParallelTextureLoader(FileHandleResolver resolver, PixmapDecodePool decodePool, TextureVariants variants) {
+        super(resolver);
+        this.decodePool = decodePool;
+        this.variants = variants;
+    }
+
+    /**
+     * Starts decoding what a queued asset will upload: the file of a Texture, the pages of a
+     * TextureAtlas. Other types and compressed variants are ignored.
+     */
+    public void prefetch(String fileName, Class<?> type) {
+        decodableFiles(fileName, type, files);
+        for (FileHandle file : files) {
+            decodePool.prefetch(file);
+        }
+        files.clear();
+    }
+
+    /**
+     * Drops what prefetch() started for an asset that is unloaded before the loader reached it,
+     * so its Pixmaps do not stay decoded until the pool is disposed.
+     */
+    public void cancel(String fileName, Class<?> type) {
+        decodableFiles(fileName, type, files);
+        for (FileHandle file : files) {
+            decodePool.cancel(file);
+        }
+        files.clear();
+    }
+
+    // The files the loader will decode for an asset, picked the same way loadAsync picks them
+    private void decodableFiles(String fileName, Class<?> type, Array<FileHandle> out) {
+        if (type == Texture.class) {
+            FileHandle file = variants.select(resolve(fileName));
+            if (isDecodable(file)) out.add(file);
+        } else if (type == TextureAtlas.class) {
+            FileHandle file = resolve(fileName);
+            TextureAtlas.TextureAtlasData atlasData = new TextureAtlas.TextureAtlasData(file, file.parent(), false);
+            for (TextureAtlas.TextureAtlasData.Page page : atlasData.getPages()) {
+                FileHandle pageFile = variants.select(page.textureFile);
+                if (isDecodable(pageFile)) out.add(pageFile);
+            }
+        }
+    }
+
+    @Override
+    public void loadAsync(AssetManager manager, String fileName, FileHandle file, TextureLoader.TextureParameter parameter) {
+        Pixmap.Format format = null;
+        boolean genMipMaps = false;
+        if (parameter != null) {
+            format = parameter.format;
+            genMipMaps = parameter.genMipMaps;
+            data = parameter.textureData;
+        } else {
+            data = null;
+        }
+
+        if (data == null) {
+            file = variants.select(file);
+            if (isDecodable(file)) {
+                data = new FileTextureData(file, decodePool.take(file), format, genMipMaps);
+            } else {
+                // KTX variants and custom formats go through the stock path
+                data = TextureData.Factory.loadFromFile(file, format, genMipMaps);
+            }
+        }
+        if (!data.isPrepared()) data.prepare();
+    }
+
+    @Override
+    public Texture loadSync(AssetManager manager, String fileName, FileHandle file, TextureLoader.TextureParameter parameter) {
+        TextureData textureData = data;
+        data = null;
+        Texture texture = parameter != null ? parameter.texture : null;
+        if (texture != null) {
+            texture.load(textureData);
+        } else {
+            texture = new Texture(textureData);
+        }
+        if (parameter != null) {
+            texture.setFilter(parameter.minFilter, parameter.magFilter);
+            texture.setWrap(parameter.wrapU, parameter.wrapV);
+        }
+        return texture;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Array<AssetDescriptor> getDependencies(String fileName, FileHandle file, TextureLoader.TextureParameter parameter) {
+        return null;
+    }
+
+    private static boolean isDecodable(FileHandle file) {
+        String extension = file.extension().toLowerCase();
+        return extension.equals("png") || extension.equals("jpg") || extension.equals("jpeg");
+    }
+}
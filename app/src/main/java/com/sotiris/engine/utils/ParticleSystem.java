@@ -0,0 +1,141 @@
+package com.sotiris.engine.utils;
+
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.ParticleEffect;
+import com.badlogic.gdx.graphics.g2d.ParticleEffectPool;
+import com.badlogic.gdx.graphics.g2d.ParticleEffectPool.PooledEffect;
+import com.badlogic.gdx.graphics.g2d.ParticleEmitter;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * ParticleSystem owns every live particle effect in the world. Templates are taken from the
+ * AssetManager once, or registered with addTemplate(), and pooled. Entities only spawn
+ * effects and never update or draw them. All effects are updated and drawn in one pass each
+ * frame, in world coordinates. The number of live particles is capped, when a burst goes over
+ * the cap the oldest effects are dropped first.
+ */
+public class ParticleSystem {
+    public static final String BLOOD = "blood.p";
+
+    private static final int MAX_PARTICLES = 1500;
+    private static final int MAX_EFFECTS = 64;
+    private static final int POOL_INITIAL = 8;
+    private static final int POOL_MAX = 32;
+
+    private final AssetManager assetManager;
+    private final ObjectMap<String, ParticleEffectPool> pools = new ObjectMap<>();
+    // Oldest first, so eviction always takes index 0
+    private final Array<PooledEffect> active = new Array<>(true, MAX_EFFECTS);
+    private int particleCount;
+
+    public ParticleSystem(AssetManager assetManager) {
+        this.assetManager = assetManager;
+    }
+
+    /**
+     * Registers an effect built in code under name, for obtain() and spawn().
+     */
+    public void addTemplate(String name, ParticleEffect template) {
+        pools.put(name, new ParticleEffectPool(template, POOL_INITIAL, POOL_MAX));
+    }
+
+    /**
+     * Takes an effect of the given template from its pool. It is not live until start() is
+     * called, so the caller can adjust its emitters first.
+     */
+    public PooledEffect obtain(String template) {
+        ParticleEffectPool pool = pools.get(template);
+        if (pool == null) {
+            pool = new ParticleEffectPool(assetManager.get(template, ParticleEffect.class), POOL_INITIAL, POOL_MAX);
+            pools.put(template, pool);
+        }
+        return pool.obtain();
+    }
+
+    /**
+     * Starts an obtained effect at (x, y) in world coordinates and hands it to the system.
+     */
+    public void start(PooledEffect effect, float x, float y) {
+        if (active.size == MAX_EFFECTS) {
+            evictOldest();
+        }
+        effect.setPosition(x, y);
+        effect.start();
+        active.add(effect);
+    }
+
+    public PooledEffect spawn(String template, float x, float y) {
+        PooledEffect effect = obtain(template);
+        start(effect, x, y);
+        return effect;
+    }
+
+    public void update(float delta) {
+        particleCount = 0;
+        for (int i = active.size - 1; i >= 0; i--) {
+            PooledEffect effect = active.get(i);
+            effect.update(delta);
+            if (effect.isComplete()) {
+                active.removeIndex(i);
+                effect.free();
+            } else {
+                particleCount += countParticles(effect);
+            }
+        }
+        while (particleCount > MAX_PARTICLES && active.size > 0) {
+            particleCount -= countParticles(active.first());
+            evictOldest();
+        }
+    }
+
+    /**
+     * Draws every live effect. The batch must be begun with the world camera's projection.
+     */
+    public void draw(Batch batch) {
+        for (PooledEffect effect : active) {
+            effect.draw(batch);
+        }
+    }
+
+    public void clear() {
+        for (PooledEffect effect : active) {
+            effect.free();
+        }
+        active.clear();
+        particleCount = 0;
+    }
+
+    public int getActiveCount() {
+        return active.size;
+    }
+
+    public int getParticleCount() {
+        return particleCount;
+    }
+
+    /**
+     * Frees the live effects and drops the pools. Asset templates belong to the AssetManager.
+     */
+    public void dispose() {
+        clear();
+        for (ParticleEffectPool pool : pools.values()) {
+            pool.clear();
+        }
+        pools.clear();
+    }
+
+    private void evictOldest() {
+        active.removeIndex(0).free();
+    }
+
+    private static int countParticles(ParticleEffect effect) {
+        int count = 0;
+        Array<ParticleEmitter> emitters = effect.getEmitters();
+        for (int i = 0; i < emitters.size; i++) {
+            count += emitters.get(i).getActiveCount();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,175 @@
+package com.sotiris.engine.utils;
+
+import com.badlogic.gdx.ai.msg.MessageDispatcher;
+import com.badlogic.gdx.ai.msg.Telegram;
+import com.badlogic.gdx.ai.msg.Telegraph;
+import com.badlogic.gdx.ai.pfa.DefaultGraphPath;
+import com.badlogic.gdx.ai.pfa.PathFinderQueue;
+import com.badlogic.gdx.ai.pfa.PathFinderRequest;
+import com.badlogic.gdx.ai.pfa.indexed.IndexedAStarPathFinder;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * PathService answers tile to tile path requests with gdx-ai's IndexedAStarPathFinder over a
+ * TileGraph. Searches are queued on a PathFinderQueue and advanced by update() within a fixed
+ * time budget per frame, so no frame pays for every search at once. Results, including searches
+ * still running, are kept in an LRU cache keyed by (start tile, goal tile) and shared by every
+ * enemy asking for the same pair. When the collision overlay changes the graph is rebuilt and
+ * every path handed out before, finished or not, goes stale, see isCurrent().
+ */
+public class PathService implements Telegraph {
+    private static final int MSG_PATH_REQUEST = 1;
+    private static final int MSG_PATH_RESPONSE = 2;
+    private static final int CACHE_SIZE = 64;
+    private static final long FRAME_BUDGET_NANOS = 1_000_000L;
+
+    /**
+     * A path between two tiles. Waypoints are tile centres, start tile excluded. Until isReady()
+     * the search is still in the queue. A stale path was searched on an older graph and never
+     * reports a result.
+     */
+    public static class Path extends PathFinderRequest<TileGraph.TileNode> {
+        private final Array<Vector2> waypoints = new Array<>();
+        private final int goalIndex;
+        private final int generation;
+        private boolean ready;
+        private boolean stale;
+
+        Path(TileGraph.TileNode start, TileGraph.TileNode goal, int goalIndex, int generation) {
+            super(start, goal, TileGraph.DISTANCE, new DefaultGraphPath<>());
+            this.goalIndex = goalIndex;
+            this.generation = generation;
+        }
+
+        public boolean isReady() {
+            return ready;
+        }
+
+        public boolean isFound() {
+            return ready && pathFound && !stale;
+        }
+
+        /**
+         * @return the TileGraph generation the path was requested on
+         */
+        public int getGeneration() {
+            return generation;
+        }
+
+        /**
+         * @return the tile index of the goal as requested, before snapping to a walkable tile
+         */
+        public int getGoalIndex() {
+            return goalIndex;
+        }
+
+        public Array<Vector2> getWaypoints() {
+            return waypoints;
+        }
+    }
+
+    private final TileGraph graph;
+    private final PathFinderQueue<TileGraph.TileNode> queue;
+    private final MessageDispatcher dispatcher;
+    private final Map<Long, Path> cache;
+    // Searches queued or running, including ones the cache already evicted
+    private final Array<Path> inFlight = new Array<>(false, 16);
+
+    public PathService(TiledMap map, CollisionManager collisionManager) {
+        graph = new TileGraph(map, collisionManager);
+        queue = new PathFinderQueue<>(new IndexedAStarPathFinder<>(graph));
+        dispatcher = new MessageDispatcher();
+        dispatcher.addListener(queue, MSG_PATH_REQUEST);
+        cache = new LinkedHashMap<Long, Path>(CACHE_SIZE, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Path> eldest) {
+                return size() > CACHE_SIZE;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached or pending path between the tiles holding the two points, queueing a
+     * new search on a miss. The returned path may not be ready yet, poll isReady().
+     */
+    public Path requestPath(float startX, float startY, float goalX, float goalY) {
+        TileGraph.TileNode start = graph.getNodeAt(startX, startY);
+        TileGraph.TileNode requestedGoal = graph.getNodeAt(goalX, goalY);
+        long key = (long) start.index * graph.getNodeCount() + requestedGoal.index;
+
+        Path path = cache.get(key);
+        if (path != null) return path;
+
+        TileGraph.TileNode goal = graph.getNearestWalkable(requestedGoal);
+        path = new Path(start, goal != null ? goal : requestedGoal, requestedGoal.index, graph.getGeneration());
+        cache.put(key, path);
+        if (goal == null) {
+            // Nowhere to stand near the goal, fail right away instead of searching the whole map
+            path.ready = true;
+        } else {
+            path.dispatcher = dispatcher;
+            path.responseMessageCode = MSG_PATH_RESPONSE;
+            inFlight.add(path);
+            dispatcher.dispatchMessage(this, queue, MSG_PATH_REQUEST, path);
+        }
+        return path;
+    }
+
+    public int getGoalIndex(float goalX, float goalY) {
+        return graph.getNodeAt(goalX, goalY).index;
+    }
+
+    /**
+     * False once the path was searched on an older graph, the holder should request it again.
+     */
+    public boolean isCurrent(Path path) {
+        return !path.stale && path.generation == graph.getGeneration();
+    }
+
+    /**
+     * Advances the queued searches for at most the frame budget. Call once per frame.
+     */
+    public void update() {
+        if (graph.refresh()) {
+            // Collision overlay changed, paths found so far may run through new obstacles and
+            // searches still queued are now walking rewritten connections
+            invalidate();
+        }
+        queue.run(FRAME_BUDGET_NANOS);
+    }
+
+    public void clear() {
+        invalidate();
+    }
+
+    private void invalidate() {
+        for (Path path : cache.values()) {
+            path.stale = true;
+        }
+        for (Path path : inFlight) {
+            path.stale = true;
+        }
+        cache.clear();
+    }
+
+    @Override
+    public boolean handleMessage(Telegram msg) {
+        if (msg.message != MSG_PATH_RESPONSE) return false;
+        Path path = (Path) msg.extraInfo;
+        inFlight.removeValue(path, true);
+        if (path.pathFound && !path.stale) {
+            DefaultGraphPath<TileGraph.TileNode> nodes = (DefaultGraphPath<TileGraph.TileNode>) path.resultPath;
+            for (int i = 1; i < nodes.getCount(); i++) {
+                TileGraph.TileNode node = nodes.get(i);
+                path.waypoints.add(new Vector2(node.centreX, node.centreY));
+            }
+        }
+        path.ready = true;
+        return true;
+    }
+}
@@ -0,0 +1,216 @@
+package com.sotiris.engine.utils;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+import com.badlogic.gdx.utils.async.AsyncResult;
+import com.badlogic.gdx.utils.async.AsyncTask;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * PixmapDecodePool decodes image files into Pixmaps on a fixed pool of worker threads, one
+ * per core. Files are prefetched as soon as they are known and taken when the texture loader
+ * reaches them, so decoding overlaps instead of running one file at a time. At most
+ * maxInFlight Pixmaps are decoding or decoded and not yet taken, the rest wait their turn in
+ * prefetch order, so native memory stays bounded by a few images rather than the whole load.
+ * A prefetch nobody will take, because its asset was unloaded first, is dropped by cancel().
+ * It never touches GL, a headless backend can time decode throughput with it directly.
+ */
+public class PixmapDecodePool implements Disposable {
+    private final AsyncExecutor executor;
+    private final int threadCount;
+    private final int maxInFlight;
+    // Started decodes keyed by file path, guarded by this
+    private final ObjectMap<String, Decode> pending = new ObjectMap<>();
+    // Prefetched but not started yet, in prefetch order, guarded by this
+    private final Array<FileHandle> waiting = new Array<>();
+    // Cancelled decodes still running, they hold memory until they finish, guarded by this
+    private int cancelledCount;
+    private int peakInFlight;
+    private final AtomicLong decodeNanos = new AtomicLong();
+    private final AtomicInteger decodedCount = new AtomicInteger();
+
+    public PixmapDecodePool() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public PixmapDecodePool(int threadCount) {
+        this(threadCount, 2 * Math.max(1, threadCount));
+    }
+
+    public PixmapDecodePool(int threadCount, int maxInFlight) {
+        this.threadCount = Math.max(1, threadCount);
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.executor = new AsyncExecutor(this.threadCount, "PixmapDecode");
+    }
+
+    /**
+     * Queues file for decoding unless it is already known, it starts once fewer than
+     * maxInFlight Pixmaps are outstanding.
+     */
+    public synchronized void prefetch(FileHandle file) {
+        String key = keyOf(file);
+        if (pending.containsKey(key) || indexOfWaiting(key) >= 0) return;
+        waiting.add(file);
+        startWaiting();
+    }
+
+    /**
+     * Returns the decoded Pixmap, waiting for it if needed. The caller owns the Pixmap.
+     * A file that has not started yet is decoded right away, ahead of the queue.
+     */
+    public Pixmap take(FileHandle file) {
+        Decode decode;
+        synchronized (this) {
+            String key = keyOf(file);
+            decode = pending.remove(key);
+            if (decode == null) {
+                int index = indexOfWaiting(key);
+                if (index >= 0) waiting.removeIndex(index);
+                decode = submit(file);
+            }
+            startWaiting();
+        }
+        return decode.result.get();
+    }
+
+    /**
+     * Forgets a prefetch that will never be taken. A waiting file is dropped, a decoded Pixmap
+     * is disposed now and one still decoding as soon as it is done.
+     */
+    public synchronized void cancel(FileHandle file) {
+        String key = keyOf(file);
+        int index = indexOfWaiting(key);
+        if (index >= 0) waiting.removeIndex(index);
+        Decode decode = pending.remove(key);
+        if (decode != null) {
+            if (decode.finished) {
+                disposeResult(decode);
+            } else {
+                decode.cancelled = true;
+                cancelledCount++;
+            }
+        }
+        startWaiting();
+    }
+
+    private void startWaiting() {
+        while (waiting.size > 0 && pending.size + cancelledCount < maxInFlight) {
+            FileHandle next = waiting.removeIndex(0);
+            pending.put(keyOf(next), submit(next));
+        }
+        peakInFlight = Math.max(peakInFlight, pending.size + cancelledCount);
+    }
+
+    private Decode submit(FileHandle file) {
+        Decode decode = new Decode(file);
+        decode.result = executor.submit(decode);
+        return decode;
+    }
+
+    private int indexOfWaiting(String key) {
+        for (int i = 0; i < waiting.size; i++) {
+            if (keyOf(waiting.get(i)).equals(key)) return i;
+        }
+        return -1;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * Most Pixmaps outstanding at once so far, never above getMaxInFlight().
+     */
+    public synchronized int getPeakInFlight() {
+        return peakInFlight;
+    }
+
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    public int getDecodedCount() {
+        return decodedCount.get();
+    }
+
+    /**
+     * Summed worker time spent decoding, compare with wall time to see the parallel speed up.
+     */
+    public long getDecodeNanos() {
+        return decodeNanos.get();
+    }
+
+    /**
+     * Waits for the workers and frees Pixmaps that were prefetched but never taken.
+     */
+    @Override
+    public void dispose() {
+        executor.dispose();
+        synchronized (this) {
+            for (Decode decode : pending.values()) {
+                disposeResult(decode);
+            }
+            pending.clear();
+            waiting.clear();
+        }
+    }
+
+    private static void disposeResult(Decode decode) {
+        try {
+            decode.result.get().dispose();
+        } catch (GdxRuntimeException e) {
+            // The decode failed, there is nothing to free
+        }
+    }
+
+    private Pixmap decode(FileHandle file) {
+        long start = TimeUtils.nanoTime();
+        Pixmap pixmap = new Pixmap(file);
+        decodeNanos.addAndGet(TimeUtils.nanoTime() - start);
+        decodedCount.incrementAndGet();
+        return pixmap;
+    }
+
+    private static String keyOf(FileHandle file) {
+        return file.path().replace('\\', '/');
+    }
+
+    private class Decode implements AsyncTask<Pixmap> {
+        final FileHandle file;
+        AsyncResult<Pixmap> result;
+        // Both guarded by the pool, a decode cancelled before it finished frees its own Pixmap
+        boolean cancelled;
+        boolean finished;
+
+        Decode(FileHandle file) {
+            this.file = file;
+        }
+
+        @Override
+        public Pixmap call() {
+            Pixmap pixmap = null;
+            try {
+                pixmap = decode(file);
+            } finally {
+                synchronized (PixmapDecodePool.this) {
+                    finished = true;
+                    if (cancelled) {
+                        cancelledCount--;
+                        if (pixmap != null) pixmap.dispose();
+                        pixmap = null;
+                        startWaiting();
+                    }
+                }
+            }
+            return pixmap;
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.sotiris.engine.utils;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.g2d.Sprite;
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.maps.MapLayer;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTile;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.LongMap;
+
+/**
+ * StaticLayerCache bakes the tile layers that never change, and sprites placed once such as
+ * the static cars, into SpriteCache geometry that stays on the GPU. Drawing it is one call per
+ * visible chunk instead of rebuilding the vertices of every visible tile each frame. The tiles
+ * are rebuilt only when the map is replaced, the sprites when a new set is handed in.
+ * <p>
+ * Tiles are drawn first, then the sprites, so a sprite hanging over a chunk border is never
+ * covered by the neighbouring chunk's tiles. Animated tiles are baked on their first frame.
+ */
+public class StaticLayerCache implements Disposable {
+    // In tiles, both ways
+    private static final int CHUNK_TILES = 16;
+
+    private final String[] layerNames;
+    private final Sprite scratch = new Sprite();
+    private final Rectangle view = new Rectangle();
+
+    private TiledMap map;
+    private Array<Sprite> sprites = new Array<>();
+    private boolean tilesDirty = true;
+    private boolean spritesDirty = true;
+
+    private SpriteCache tileCache;
+    private final IntArray tileChunkIds = new IntArray();
+    private final Array<Rectangle> tileChunkBounds = new Array<>();
+    private SpriteCache spriteCache;
+    private final IntArray spriteChunkIds = new IntArray();
+    private final Array<Rectangle> spriteChunkBounds = new Array<>();
+
+    public StaticLayerCache(TiledMap map, String... layerNames) {
+        this.map = map;
+        this.layerNames = layerNames;
+    }
+
+    /**
+     * Rebakes the tile layers from another map on the next render.
+     */
+    public void setMap(TiledMap map) {
+        this.map = map;
+        tilesDirty = true;
+    }
+
+    /**
+     * Replaces the baked sprites. Their vertices are read at the next render, moving a sprite
+     * after that needs another setSprites().
+     */
+    public void setSprites(Array<? extends Sprite> sprites) {
+        this.sprites = new Array<>(sprites);
+        spritesDirty = true;
+    }
+
+    /**
+     * Draws the chunks overlapping the camera's view, the map layers then the sprites.
+     */
+    public void render(OrthographicCamera camera) {
+        if (tilesDirty) buildTiles();
+        if (spritesDirty) buildSprites();
+
+        float width = camera.viewportWidth * camera.zoom;
+        float height = camera.viewportHeight * camera.zoom;
+        view.set(camera.position.x - width / 2f, camera.position.y - height / 2f, width, height);
+
+        Gdx.gl.glEnable(GL20.GL_BLEND);
+        Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        draw(tileCache, tileChunkIds, tileChunkBounds, camera);
+        draw(spriteCache, spriteChunkIds, spriteChunkBounds, camera);
+        Gdx.gl.glDisable(GL20.GL_BLEND);
+    }
+
+    public int getChunkCount() {
+        return tileChunkIds.size + spriteChunkIds.size;
+    }
+
+    private void draw(SpriteCache cache, IntArray ids, Array<Rectangle> bounds, OrthographicCamera camera) {
+        if (cache == null || ids.size == 0) return;
+        cache.setProjectionMatrix(camera.combined);
+        cache.begin();
+        for (int i = 0; i < ids.size; i++) {
+            if (bounds.get(i).overlaps(view)) {
+                cache.draw(ids.get(i));
+            }
+        }
+        cache.end();
+    }
+
+    private void buildTiles() {
+        tilesDirty = false;
+        if (tileCache != null) tileCache.dispose();
+        tileCache = null;
+        tileChunkIds.clear();
+        tileChunkBounds.clear();
+
+        Array<TiledMapTileLayer> layers = new Array<>();
+        int cellCount = 0;
+        for (String name : layerNames) {
+            MapLayer layer = map.getLayers().get(name);
+            if (!(layer instanceof TiledMapTileLayer)) {
+                throw new GdxRuntimeException("No tile layer named " + name + " in the map");
+            }
+            TiledMapTileLayer tileLayer = (TiledMapTileLayer) layer;
+            if (!tileLayer.isVisible()) continue;
+            layers.add(tileLayer);
+            for (int x = 0; x < tileLayer.getWidth(); x++) {
+                for (int y = 0; y < tileLayer.getHeight(); y++) {
+                    if (tileAt(tileLayer, x, y) != null) cellCount++;
+                }
+            }
+        }
+        if (cellCount == 0) return;
+
+        tileCache = new SpriteCache(cellCount, true);
+        int columns = 0;
+        int rows = 0;
+        for (TiledMapTileLayer layer : layers) {
+            columns = Math.max(columns, layer.getWidth());
+            rows = Math.max(rows, layer.getHeight());
+        }
+        for (int chunkX = 0; chunkX < columns; chunkX += CHUNK_TILES) {
+            for (int chunkY = 0; chunkY < rows; chunkY += CHUNK_TILES) {
+                Rectangle bounds = null;
+                tileCache.beginCache();
+                for (TiledMapTileLayer layer : layers) {
+                    int endX = Math.min(chunkX + CHUNK_TILES, layer.getWidth());
+                    int endY = Math.min(chunkY + CHUNK_TILES, layer.getHeight());
+                    for (int y = chunkY; y < endY; y++) {
+                        for (int x = chunkX; x < endX; x++) {
+                            TiledMapTile tile = tileAt(layer, x, y);
+                            if (tile == null) continue;
+                            Sprite sprite = placeTile(layer, layer.getCell(x, y), tile, x, y);
+                            tileCache.add(sprite);
+                            bounds = union(bounds, sprite.getBoundingRectangle());
+                        }
+                    }
+                }
+                int id = tileCache.endCache();
+                if (bounds != null) {
+                    tileChunkIds.add(id);
+                    tileChunkBounds.add(bounds);
+                }
+            }
+        }
+    }
+
+    private void buildSprites() {
+        spritesDirty = false;
+        if (spriteCache != null) spriteCache.dispose();
+        spriteCache = null;
+        spriteChunkIds.clear();
+        spriteChunkBounds.clear();
+        if (sprites.size == 0) return;
+
+        // Grouped by the chunk holding their centre, the bounds cover whatever hangs over
+        float chunkWidth = CHUNK_TILES * tileWidth();
+        float chunkHeight = CHUNK_TILES * tileHeight();
+        LongMap<Array<Sprite>> chunks = new LongMap<>();
+        for (Sprite sprite : sprites) {
+            Rectangle box = sprite.getBoundingRectangle();
+            int keyX = MathUtils.floor((box.x + box.width / 2f) / chunkWidth);
+            int keyY = MathUtils.floor((box.y + box.height / 2f) / chunkHeight);
+            long key = (long) keyX << 32 | (keyY & 0xffffffffL);
+            Array<Sprite> chunk = chunks.get(key);
+            if (chunk == null) {
+                chunk = new Array<>();
+                chunks.put(key, chunk);
+            }
+            chunk.add(sprite);
+        }
+
+        spriteCache = new SpriteCache(sprites.size, true);
+        for (Array<Sprite> chunk : chunks.values()) {
+            Rectangle bounds = null;
+            spriteCache.beginCache();
+            for (Sprite sprite : chunk) {
+                spriteCache.add(sprite);
+                bounds = union(bounds, sprite.getBoundingRectangle());
+            }
+            spriteChunkIds.add(spriteCache.endCache());
+            spriteChunkBounds.add(bounds);
+        }
+        // Baked, the cache keeps no reference to them
+        sprites.clear();
+    }
+
+    // Mirrors OrthogonalTiledMapRenderer's placement for a layer at parallax 1
+    private Sprite placeTile(TiledMapTileLayer layer, TiledMapTileLayer.Cell cell, TiledMapTile tile, int x, int y) {
+        TextureRegion region = tile.getTextureRegion();
+        float drawX = x * layer.getTileWidth() + layer.getRenderOffsetX() + tile.getOffsetX();
+        float drawY = y * layer.getTileHeight() - layer.getRenderOffsetY() + tile.getOffsetY();
+
+        Sprite sprite = scratch;
+        sprite.setRegion(region);
+        sprite.setBounds(drawX, drawY, region.getRegionWidth(), region.getRegionHeight());
+        sprite.setOriginCenter();
+        sprite.setRotation(cell.getRotation() * 90f);
+        sprite.setFlip(cell.getFlipHorizontally(), cell.getFlipVertically());
+        sprite.setColor(1f, 1f, 1f, layer.getOpacity());
+        return sprite;
+    }
+
+    private static TiledMapTile tileAt(TiledMapTileLayer layer, int x, int y) {
+        TiledMapTileLayer.Cell cell = layer.getCell(x, y);
+        return cell != null ? cell.getTile() : null;
+    }
+
+    private static Rectangle union(Rectangle bounds, Rectangle box) {
+        return bounds == null ? new Rectangle(box) : bounds.merge(box);
+    }
+
+    private float tileWidth() {
+        return map.getProperties().get("tilewidth", Integer.class);
+    }
+
+    private float tileHeight() {
+        return map.getProperties().get("tileheight", Integer.class);
+    }
+
+    @Override
+    public void dispose() {
+        if (tileCache != null) tileCache.dispose();
+        if (spriteCache != null) spriteCache.dispose();
+        tileCache = null;
+        spriteCache = null;
+    }
+}
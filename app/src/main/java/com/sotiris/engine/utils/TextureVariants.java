@@ -0,0 +1,47 @@
+package com.sotiris.engine.utils;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+
+/**
+ * TextureVariants swaps a PNG for the ETC copy the build's compressTextures task wrote next
+ * to it, when the GPU can sample that copy: name.etc2.ktx needs GLES 3, name.etc1.ktx the
+ * ETC1 extension. Asset names stay the PNG's, so atlas pages and map tilesets, which loaders
+ * queue by file, switch as well. Support is probed once on the render thread, by detect().
+ */
+public class TextureVariants {
+    private static final String ETC1_SUFFIX = ".etc1.ktx";
+    private static final String ETC2_SUFFIX = ".etc2.ktx";
+
+    private volatile boolean detected;
+    private boolean etc1;
+    private boolean etc2;
+
+    /**
+     * Reads what the GPU supports, GL calls are only allowed on the render thread.
+     */
+    public void detect() {
+        if (detected) return;
+        etc2 = Gdx.graphics.getGLVersion().isVersionEqualToOrHigher(3, 0);
+        etc1 = Gdx.graphics.supportsExtension("GL_OES_compressed_ETC1_RGB8_texture");
+        detected = true;
+    }
+
+    /**
+     * The file to upload for file, its compressed variant if there is a usable one.
+     */
+    public FileHandle select(FileHandle file) {
+        if (!detected || !file.extension().equalsIgnoreCase("png")) {
+            return file;
+        }
+        if (etc2) {
+            FileHandle variant = file.sibling(file.nameWithoutExtension() + ETC2_SUFFIX);
+            if (variant.exists()) return variant;
+        }
+        if (etc1) {
+            FileHandle variant = file.sibling(file.nameWithoutExtension() + ETC1_SUFFIX);
+            if (variant.exists()) return variant;
+        }
+        return file;
+    }
+}
@@ -0,0 +1,197 @@
+package com.sotiris.engine.utils;
+
+import com.badlogic.gdx.ai.pfa.Connection;
+import com.badlogic.gdx.ai.pfa.Heuristic;
+import com.badlogic.gdx.ai.pfa.indexed.IndexedGraph;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * TileGraph is the gdx-ai navigation graph of the map: one node per tile of the "Map" layer,
+ * 8-way connections between walkable tiles. A tile is walkable when it has a cell in the
+ * layer and no collision rectangle covers it. Blocked tiles keep outgoing connections so an
+ * enemy pushed into one can still path out of it.
+ */
+public class TileGraph implements IndexedGraph<TileGraph.TileNode> {
+    private static final float DIAGONAL_COST = 1.4142135f;
+    // A few pixels of slack so rectangles only grazing a tile do not close it
+    private static final float TILE_INSET = 4f;
+
+    public static class TileNode {
+        public final int index;
+        public final int x;
+        public final int y;
+        public final float centreX;
+        public final float centreY;
+        boolean walkable;
+        final Array<Connection<TileNode>> connections = new Array<>(8);
+
+        TileNode(int index, int x, int y, float tileSize) {
+            this.index = index;
+            this.x = x;
+            this.y = y;
+            this.centreX = (x + 0.5f) * tileSize;
+            this.centreY = (y + 0.5f) * tileSize;
+        }
+
+        public boolean isWalkable() {
+            return walkable;
+        }
+    }
+
+    private static class TileConnection implements Connection<TileNode> {
+        private final TileNode from;
+        private final TileNode to;
+        private final float cost;
+
+        TileConnection(TileNode from, TileNode to, float cost) {
+            this.from = from;
+            this.to = to;
+            this.cost = cost;
+        }
+
+        @Override
+        public float getCost() {
+            return cost;
+        }
+
+        @Override
+        public TileNode getFromNode() {
+            return from;
+        }
+
+        @Override
+        public TileNode getToNode() {
+            return to;
+        }
+    }
+
+    /**
+     * Straight line distance in tiles, admissible for the 1 / sqrt(2) connection costs.
+     */
+    public static final Heuristic<TileNode> DISTANCE = (node, endNode) -> {
+        float dx = node.x - endNode.x;
+        float dy = node.y - endNode.y;
+        return (float) Math.sqrt(dx * dx + dy * dy);
+    };
+
+    private final TiledMapTileLayer layer;
+    private final CollisionManager collisionManager;
+    private final float tileSize;
+    private final int columns;
+    private final int rows;
+    private final TileNode[] nodes;
+    private int collisionVersion = -1;
+    // Bumped on every rebuild, paths remember the generation they were searched on
+    private int generation;
+
+    private final Rectangle tileArea = new Rectangle();
+    private final Array<Rectangle> tileRects = new Array<>();
+
+    public TileGraph(TiledMap map, CollisionManager collisionManager) {
+        this.layer = (TiledMapTileLayer) map.getLayers().get("Map");
+        this.collisionManager = collisionManager;
+        this.tileSize = layer.getTileWidth();
+        this.columns = layer.getWidth();
+        this.rows = layer.getHeight();
+        this.nodes = new TileNode[columns * rows];
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < columns; x++) {
+                int index = y * columns + x;
+                nodes[index] = new TileNode(index, x, y, tileSize);
+            }
+        }
+        rebuild();
+    }
+
+    /**
+     * Rebuilds walkability and connections if the collision overlay changed.
+     * @return true if the graph was rebuilt, cached paths are stale in that case
+     */
+    public boolean refresh() {
+        if (collisionVersion == collisionManager.getVersion()) return false;
+        rebuild();
+        return true;
+    }
+
+    public int getGeneration() {
+        return generation;
+    }
+
+    private void rebuild() {
+        collisionVersion = collisionManager.getVersion();
+        generation++;
+        for (TileNode node : nodes) {
+            tileArea.set(node.x * tileSize + TILE_INSET, node.y * tileSize + TILE_INSET,
+                    tileSize - TILE_INSET * 2, tileSize - TILE_INSET * 2);
+            node.walkable = layer.getCell(node.x, node.y) != null
+                    && collisionManager.queryRect(tileArea, tileRects) == 0;
+        }
+        for (TileNode node : nodes) {
+            node.connections.clear();
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    if (dx == 0 && dy == 0) continue;
+                    if (!isWalkable(node.x + dx, node.y + dy)) continue;
+                    boolean diagonal = dx != 0 && dy != 0;
+                    // No corner cutting, both orthogonal neighbours have to be walkable
+                    if (diagonal && (!isWalkable(node.x + dx, node.y) || !isWalkable(node.x, node.y + dy))) continue;
+                    TileNode to = nodes[(node.y + dy) * columns + node.x + dx];
+                    node.connections.add(new TileConnection(node, to, diagonal ? DIAGONAL_COST : 1f));
+                }
+            }
+        }
+    }
+
+    public TileNode getNodeAt(float x, float y) {
+        int tx = MathUtils.clamp((int) Math.floor(x / tileSize), 0, columns - 1);
+        int ty = MathUtils.clamp((int) Math.floor(y / tileSize), 0, rows - 1);
+        return nodes[ty * columns + tx];
+    }
+
+    /**
+     * Returns the node itself if walkable, otherwise the closest walkable node in a small ring
+     * around it, or null when there is none.
+     */
+    public TileNode getNearestWalkable(TileNode node) {
+        if (node.walkable) return node;
+        for (int radius = 1; radius <= 2; radius++) {
+            TileNode best = null;
+            float bestDistance = Float.MAX_VALUE;
+            for (int dy = -radius; dy <= radius; dy++) {
+                for (int dx = -radius; dx <= radius; dx++) {
+                    if (!isWalkable(node.x + dx, node.y + dy)) continue;
+                    float distance = dx * dx + dy * dy;
+                    if (distance < bestDistance) {
+                        bestDistance = distance;
+                        best = nodes[(node.y + dy) * columns + node.x + dx];
+                    }
+                }
+            }
+            if (best != null) return best;
+        }
+        return null;
+    }
+
+    private boolean isWalkable(int x, int y) {
+        return x >= 0 && x < columns && y >= 0 && y < rows && nodes[y * columns + x].walkable;
+    }
+
+    @Override
+    public int getIndex(TileNode node) {
+        return node.index;
+    }
+
+    @Override
+    public int getNodeCount() {
+        return nodes.length;
+    }
+
+    @Override
+    public Array<Connection<TileNode>> getConnections(TileNode fromNode) {
+        return fromNode.connections;
+    }
+}
@@ -14,10 +14,11 @@ import com.badlogic.gdx.scenes.scene2d.actions.Actions;
 import com.badlogic.gdx.scenes.scene2d.actions.RunnableAction;
 import com.badlogic.gdx.scenes.scene2d.actions.SequenceAction;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectIntMap;
 import com.badlogic.gdx.utils.Timer;
-import com.sotiris.engine.entities.BulletPool;
 import com.sotiris.engine.entities.Car;
 import com.sotiris.engine.entities.Enemy;
+import com.sotiris.engine.entities.EnemyPool;
 import com.sotiris.engine.entities.Player;
 
 import java.util.ArrayList;
@@ -46,9 +47,13 @@ public class WaveManager {
     private final AssetManager assetManager;
     private final CollisionManager collisionManager;
     private final MySpatializedSoundPlayer<Vector2> soundPlayer;
-    private final BulletPool bulletPool;
+    private final EnemyPool enemyPool;
     private final Random random;
 
+    private final Array<Rectangle> nearbyRects = new Array<>();
+    // Overlay handles of the parked cars, spawn points are reused once all have been visited
+    private final ObjectIntMap<RectangleMapObject> spawnCollisions = new ObjectIntMap<>();
+
     private final List<Car> cars;
     private final List<RectangleMapObject> carSpawnPoints;
     private WaveCallback waveCallback;
@@ -56,7 +61,7 @@ public class WaveManager {
 
     public WaveManager(Stage gameStage, World world, Player player, TiledMap map,
                        AssetManager assetManager, CollisionManager collisionManager,
-                       MySpatializedSoundPlayer<Vector2> soundPlayer, BulletPool bulletPool) {
+                       MySpatializedSoundPlayer<Vector2> soundPlayer, EnemyPool enemyPool) {
         this.gameStage = gameStage;
         this.world = world;
         this.player = player;
@@ -64,12 +69,19 @@ public class WaveManager {
         this.assetManager = assetManager;
         this.collisionManager = collisionManager;
         this.soundPlayer = soundPlayer;
-        this.bulletPool = bulletPool;
+        this.enemyPool = enemyPool;
         this.random = new Random();
         this.cars = new ArrayList<>();
         this.carSpawnPoints = new ArrayList<>();
 
         extractCarSpawnPoints();
+
+        // Build every enemy of the mission up front, spawns then only reset pooled ones
+        int totalEnemies = 0;
+        for (int count : waveEnemies) {
+            totalEnemies += count;
+        }
+        enemyPool.fill(totalEnemies);
     }
 
     public void setWaveCallback(WaveCallback callback) {
@@ -85,6 +97,10 @@ public class WaveManager {
         currentWave = 0;
         wavesFullySpawned = 0;
         activeEnemies = 0;
+        for (ObjectIntMap.Entry<RectangleMapObject> entry : spawnCollisions) {
+            collisionManager.removeCollisionRectangle(entry.value);
+        }
+        spawnCollisions.clear();
         cars.clear();
         carSpawnPoints.clear();
         extractCarSpawnPoints();
@@ -127,18 +143,9 @@ public class WaveManager {
         openDoorsAndAddCollision.setRunnable(() -> {
             car.openDoors();
             Rectangle collision = spawnPointObject.getRectangle();
-            if (!collisionManager.isPlayerInsideRectangle(player, collision)) {
-                collisionManager.addCollisionRectangle(collision);
-            } else {
-                boolean change = !collisionManager.isPlayerInsideRectangle(player, collision);
-                int attempts = 0;
-                while (!change && attempts < 5) {
-                    change = !collisionManager.isPlayerInsideRectangle(player, collision);
-                    attempts++;
-                    if (change) {
-                        collisionManager.addCollisionRectangle(collision);
-                    }
-                }
+            if (!spawnCollisions.containsKey(spawnPointObject)
+                    && !collisionManager.isPlayerInsideRectangle(player, collision)) {
+                spawnCollisions.put(spawnPointObject, collisionManager.addCollisionRectangle(collision));
             }
         });
 
@@ -222,10 +229,8 @@ public class WaveManager {
     private boolean isValidPosition(Vector2 pos, Array<Vector2> spawnedPositions) {
         Rectangle spawnRect = new Rectangle(pos.x - 10, pos.y - 10, 20, 20);
 
-        for (Rectangle collision : collisionManager.getCollisionRectangles()) {
-            if (collision.overlaps(spawnRect)) {
-                return false;
-            }
+        if (collisionManager.queryRect(spawnRect, nearbyRects) > 0) {
+            return false;
         }
 
         for (Vector2 otherPos : spawnedPositions) {
@@ -250,7 +255,7 @@ public class WaveManager {
     }
 
     private void spawnEnemy(Vector2 spawnPos) {
-        Enemy enemy = new Enemy(assetManager, spawnPos.x, spawnPos.y, player, collisionManager, world, bulletPool);
+        Enemy enemy = enemyPool.obtainEnemy(spawnPos.x, spawnPos.y);
         enemy.setOnDeath(() -> {
             activeEnemies--;
             if (activeEnemies == 0 && wavesFullySpawned >= waveEnemies.length) {
@@ -259,7 +264,6 @@ public class WaveManager {
                 }
             }
         });
-        gameStage.addActor(enemy);
         activeEnemies++;
     }
 
@@ -0,0 +1,150 @@
+package com.sotiris.engine.utils;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.TimeUtils;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Decodes every image of the real assets folder through PixmapDecodePool on the host, on a
+ * single thread and on one thread per core, the way ParallelTextureLoader drives it: everything
+ * prefetched up front, then taken in order.
+ */
+public class PixmapDecodePoolTest {
+    // Unit tests run from the app module
+    private static final String ASSETS = "src/main/assets";
+    // Timed runs per pool, the best one counts so a hiccup on the host does not fail the test
+    private static final int TIMED_RUNS = 3;
+
+    private static HeadlessApplication application;
+    private static Array<FileHandle> images;
+
+    @BeforeClass
+    public static void setUp() {
+        application = new HeadlessApplication(new ApplicationAdapter() {});
+        images = new Array<>();
+        collectImages(Gdx.files.local(ASSETS), images);
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        application.exit();
+    }
+
+    @Test
+    public void decodesEveryAssetWithinTheInFlightCap() {
+        assertTrue("No images found under " + ASSETS, images.size > 0);
+
+        PixmapDecodePool single = new PixmapDecodePool(1);
+        decodeAll(single);
+        PixmapDecodePool parallel = new PixmapDecodePool(Runtime.getRuntime().availableProcessors());
+        decodeAll(parallel);
+
+        assertEquals(images.size, single.getDecodedCount());
+        assertEquals(images.size, parallel.getDecodedCount());
+        assertTrue(single.getPeakInFlight() <= single.getMaxInFlight());
+        assertTrue(parallel.getPeakInFlight() <= parallel.getMaxInFlight());
+
+        single.dispose();
+        parallel.dispose();
+    }
+
+    @Test
+    public void decodesFasterOnMoreThreads() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        assumeTrue("Needs more than one core", cores > 1);
+
+        PixmapDecodePool single = new PixmapDecodePool(1);
+        PixmapDecodePool parallel = new PixmapDecodePool(cores);
+        // Untimed passes first, so neither run pays for the cold file cache or the JIT
+        decodeAll(single);
+        decodeAll(parallel);
+
+        long singleNanos = Long.MAX_VALUE;
+        long parallelNanos = Long.MAX_VALUE;
+        for (int run = 0; run < TIMED_RUNS; run++) {
+            singleNanos = Math.min(singleNanos, decodeAll(single));
+            parallelNanos = Math.min(parallelNanos, decodeAll(parallel));
+        }
+
+        double singleThroughput = images.size / (singleNanos / 1e9);
+        double parallelThroughput = images.size / (parallelNanos / 1e9);
+        assertTrue(String.format("%d images: %.1f/s on 1 thread, %.1f/s on %d threads",
+                images.size, singleThroughput, parallelThroughput, cores),
+                parallelThroughput > singleThroughput);
+
+        single.dispose();
+        parallel.dispose();
+    }
+
+    @Test
+    public void boundsPixmapsHeldAtOnce() {
+        PixmapDecodePool pool = new PixmapDecodePool(2, 3);
+        decodeAll(pool);
+        assertEquals(images.size, pool.getDecodedCount());
+        assertTrue(pool.getPeakInFlight() <= 3);
+        pool.dispose();
+    }
+
+    @Test
+    public void takeDecodesFilesThatWereNeverPrefetched() {
+        PixmapDecodePool pool = new PixmapDecodePool(1, 1);
+        Pixmap pixmap = pool.take(images.first());
+        assertTrue(pixmap.getWidth() > 0 && pixmap.getHeight() > 0);
+        pixmap.dispose();
+        assertEquals(1, pool.getDecodedCount());
+        pool.dispose();
+    }
+
+    @Test
+    public void cancelFreesSlotsForLaterPrefetches() {
+        PixmapDecodePool pool = new PixmapDecodePool(1, 1);
+        for (FileHandle image : images) {
+            pool.prefetch(image);
+        }
+        for (FileHandle image : images) {
+            pool.cancel(image);
+        }
+        // Nothing cancelled may keep the only slot, the next prefetch still gets decoded
+        pool.prefetch(images.first());
+        Pixmap pixmap = pool.take(images.first());
+        assertTrue(pixmap.getWidth() > 0 && pixmap.getHeight() > 0);
+        pixmap.dispose();
+        assertTrue(pool.getPeakInFlight() <= 1);
+        pool.dispose();
+    }
+
+    private static long decodeAll(PixmapDecodePool pool) {
+        long start = TimeUtils.nanoTime();
+        for (FileHandle image : images) {
+            pool.prefetch(image);
+        }
+        for (FileHandle image : images) {
+            pool.take(image).dispose();
+        }
+        return TimeUtils.nanoTime() - start;
+    }
+
+    private static void collectImages(FileHandle directory, Array<FileHandle> out) {
+        for (FileHandle file : directory.list()) {
+            if (file.isDirectory()) {
+                collectImages(file, out);
+            } else {
+                String extension = file.extension().toLowerCase();
+                if (extension.equals("png") || extension.equals("jpg") || extension.equals("jpeg")) {
+                    out.add(file);
+                }
+            }
+        }
+    }
+}
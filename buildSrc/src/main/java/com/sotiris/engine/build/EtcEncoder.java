@@ -0,0 +1,337 @@
+package com.sotiris.engine.build;
+
+import java.util.stream.IntStream;
+
+/**
+ * EtcEncoder compresses images into ETC blocks on the CPU. Colour blocks only use the ETC1
+ * modes, which ETC2 decoders read as ETC2 RGB8 blocks too, alpha goes into ETC2 EAC blocks.
+ * It is plain Java without GL or native code, a JVM test can encode and decode round trips.
+ * Pixels are ARGB ints in rows from the top, as BufferedImage.getRGB() returns them. Edges of
+ * images whose size is not a multiple of 4 are padded by repeating the last row and column.
+ */
+public final class EtcEncoder {
+    public static final int BLOCK_SIZE = 4;
+    public static final int ETC1_BLOCK_BYTES = 8;
+    public static final int ETC2_RGBA_BLOCK_BYTES = 16;
+
+    // ETC1 intensity modifiers, the small and the large step of each table
+    private static final int[][] ETC_MODIFIERS = {
+            {2, 8}, {5, 17}, {9, 29}, {13, 42}, {18, 60}, {24, 80}, {33, 106}, {47, 183}
+    };
+
+    // EAC alpha modifiers, scaled by the block's multiplier
+    private static final int[][] EAC_MODIFIERS = {
+            {-3, -6, -9, -15, 2, 5, 8, 14},
+            {-3, -7, -10, -13, 2, 6, 9, 12},
+            {-2, -5, -8, -13, 1, 4, 7, 12},
+            {-2, -4, -6, -13, 1, 3, 5, 12},
+            {-3, -6, -8, -12, 2, 5, 7, 11},
+            {-3, -7, -9, -11, 2, 6, 8, 10},
+            {-4, -7, -8, -11, 3, 6, 7, 10},
+            {-3, -5, -8, -11, 2, 4, 7, 10},
+            {-2, -6, -8, -10, 1, 5, 7, 9},
+            {-2, -5, -8, -10, 1, 4, 7, 9},
+            {-2, -4, -8, -10, 1, 3, 7, 9},
+            {-2, -5, -7, -10, 1, 4, 6, 9},
+            {-3, -4, -7, -10, 2, 3, 6, 9},
+            {-1, -2, -3, -10, 0, 1, 2, 9},
+            {-4, -6, -8, -9, 3, 5, 7, 8},
+            {-3, -5, -7, -9, 2, 4, 6, 8}
+    };
+    // Table 13 has a zero step, a block of one alpha value is stored exactly with it
+    private static final int EAC_FLAT_TABLE = 13;
+    private static final int EAC_FLAT_INDEX = 4;
+
+    private EtcEncoder() {
+    }
+
+    /**
+     * Encodes opaque pixels as ETC1 (GL_ETC1_RGB8_OES), alpha is ignored.
+     */
+    public static byte[] encodeEtc1(int[] argb, int width, int height) {
+        return encode(argb, width, height, false);
+    }
+
+    /**
+     * Encodes pixels as ETC2 RGBA8 (GL_COMPRESSED_RGBA8_ETC2_EAC), an EAC alpha block followed
+     * by a colour block for every 4x4 block.
+     */
+    public static byte[] encodeEtc2Rgba(int[] argb, int width, int height) {
+        return encode(argb, width, height, true);
+    }
+
+    public static int blocksAcross(int pixels) {
+        return (pixels + BLOCK_SIZE - 1) / BLOCK_SIZE;
+    }
+
+    private static byte[] encode(int[] argb, int width, int height, boolean alpha) {
+        if (argb.length < width * height) {
+            throw new IllegalArgumentException("Expected " + width * height + " pixels, got " + argb.length);
+        }
+        int blocksX = blocksAcross(width);
+        int blocksY = blocksAcross(height);
+        int blockBytes = alpha ? ETC2_RGBA_BLOCK_BYTES : ETC1_BLOCK_BYTES;
+        byte[] out = new byte[blocksX * blocksY * blockBytes];
+
+        // Rows of blocks write disjoint ranges of out
+        IntStream.range(0, blocksY).parallel().forEach(by -> {
+            int[] r = new int[16];
+            int[] g = new int[16];
+            int[] b = new int[16];
+            int[] a = new int[16];
+            for (int bx = 0; bx < blocksX; bx++) {
+                readBlock(argb, width, height, bx, by, r, g, b, a);
+                int offset = (by * blocksX + bx) * blockBytes;
+                if (alpha) {
+                    writeLong(out, offset, encodeAlphaBlock(a));
+                    writeLong(out, offset + 8, encodeColorBlock(r, g, b, a, true));
+                } else {
+                    writeLong(out, offset, encodeColorBlock(r, g, b, a, false));
+                }
+            }
+        });
+        return out;
+    }
+
+    // Pixels are stored column by column, index x * 4 + y, the order of the block's index bits
+    private static void readBlock(int[] argb, int width, int height, int bx, int by,
+                                  int[] r, int[] g, int[] b, int[] a) {
+        for (int x = 0; x < BLOCK_SIZE; x++) {
+            int px = Math.min(bx * BLOCK_SIZE + x, width - 1);
+            for (int y = 0; y < BLOCK_SIZE; y++) {
+                int py = Math.min(by * BLOCK_SIZE + y, height - 1);
+                int pixel = argb[py * width + px];
+                int i = x * BLOCK_SIZE + y;
+                a[i] = pixel >>> 24;
+                r[i] = (pixel >> 16) & 0xff;
+                g[i] = (pixel >> 8) & 0xff;
+                b[i] = pixel & 0xff;
+            }
+        }
+    }
+
+    /**
+     * Tries both sub-block orientations in individual and differential mode and keeps the
+     * encoding with the least squared error. Fully transparent pixels do not count when
+     * ignoreTransparent is set, their colour is never seen.
+     */
+    static long encodeColorBlock(int[] r, int[] g, int[] b, int[] a, boolean ignoreTransparent) {
+        boolean[] counted = new boolean[16];
+        boolean any = false;
+        for (int i = 0; i < 16; i++) {
+            counted[i] = !ignoreTransparent || a[i] != 0;
+            any |= counted[i];
+        }
+        if (!any) {
+            return 0L;
+        }
+
+        long best = 0L;
+        long bestError = Long.MAX_VALUE;
+        int[] indices = new int[16];
+        int[] bestIndices = new int[16];
+        for (int flip = 0; flip < 2; flip++) {
+            float[][] averages = new float[2][3];
+            int[] counts = new int[2];
+            for (int i = 0; i < 16; i++) {
+                if (!counted[i]) continue;
+                int sub = subBlock(i, flip);
+                averages[sub][0] += r[i];
+                averages[sub][1] += g[i];
+                averages[sub][2] += b[i];
+                counts[sub]++;
+            }
+            for (int sub = 0; sub < 2; sub++) {
+                for (int c = 0; c < 3; c++) {
+                    averages[sub][c] = counts[sub] > 0 ? averages[sub][c] / counts[sub] : 0f;
+                }
+            }
+            // An empty sub-block borrows the other's colour, it keeps the differential mode open
+            if (counts[0] == 0) averages[0] = averages[1].clone();
+            if (counts[1] == 0) averages[1] = averages[0].clone();
+
+            for (int differential = 0; differential < 2; differential++) {
+                int[][] quantized = new int[2][3];
+                int[][] expanded = new int[2][3];
+                for (int c = 0; c < 3; c++) {
+                    if (differential == 1) {
+                        int base = quantize(averages[0][c], 31);
+                        int delta = Math.max(-4, Math.min(3, quantize(averages[1][c], 31) - base));
+                        quantized[0][c] = base;
+                        quantized[1][c] = delta;
+                        expanded[0][c] = expand5(base);
+                        expanded[1][c] = expand5(base + delta);
+                    } else {
+                        for (int sub = 0; sub < 2; sub++) {
+                            quantized[sub][c] = quantize(averages[sub][c], 15);
+                            expanded[sub][c] = quantized[sub][c] * 17;
+                        }
+                    }
+                }
+
+                long error = 0L;
+                int[] tables = new int[2];
+                for (int sub = 0; sub < 2; sub++) {
+                    long subBest = Long.MAX_VALUE;
+                    for (int table = 0; table < ETC_MODIFIERS.length; table++) {
+                        long subError = fitTable(r, g, b, counted, flip, sub, expanded[sub], table, indices, subBest);
+                        if (subError < subBest) {
+                            subBest = subError;
+                            tables[sub] = table;
+                        }
+                    }
+                    // Refit the winner to leave its indices behind
+                    fitTable(r, g, b, counted, flip, sub, expanded[sub], tables[sub], indices, Long.MAX_VALUE);
+                    error += subBest;
+                }
+                if (error < bestError) {
+                    bestError = error;
+                    System.arraycopy(indices, 0, bestIndices, 0, 16);
+                    best = packColorBlock(differential == 1, flip, quantized, tables, bestIndices);
+                }
+            }
+        }
+        return best;
+    }
+
+    // Picks the nearest modifier of the table for every pixel of the sub-block, stops early
+    // once worse than limit
+    private static long fitTable(int[] r, int[] g, int[] b, boolean[] counted, int flip, int sub,
+                                 int[] base, int table, int[] indices, long limit) {
+        long error = 0L;
+        for (int i = 0; i < 16; i++) {
+            if (subBlock(i, flip) != sub) continue;
+            int bestIndex = 0;
+            int bestPixelError = Integer.MAX_VALUE;
+            for (int index = 0; index < 4; index++) {
+                int modifier = etcModifier(table, index);
+                int dr = clamp(base[0] + modifier) - r[i];
+                int dg = clamp(base[1] + modifier) - g[i];
+                int db = clamp(base[2] + modifier) - b[i];
+                int pixelError = dr * dr + dg * dg + db * db;
+                if (pixelError < bestPixelError) {
+                    bestPixelError = pixelError;
+                    bestIndex = index;
+                }
+            }
+            indices[i] = bestIndex;
+            if (counted[i]) {
+                error += bestPixelError;
+                if (error >= limit) return error;
+            }
+        }
+        return error;
+    }
+
+    private static long packColorBlock(boolean differential, int flip, int[][] quantized, int[] tables, int[] indices) {
+        long bits = 0L;
+        if (differential) {
+            bits |= (long) quantized[0][0] << 59 | (long) (quantized[1][0] & 7) << 56;
+            bits |= (long) quantized[0][1] << 51 | (long) (quantized[1][1] & 7) << 48;
+            bits |= (long) quantized[0][2] << 43 | (long) (quantized[1][2] & 7) << 40;
+            bits |= 1L << 33;
+        } else {
+            bits |= (long) quantized[0][0] << 60 | (long) quantized[1][0] << 56;
+            bits |= (long) quantized[0][1] << 52 | (long) quantized[1][1] << 48;
+            bits |= (long) quantized[0][2] << 44 | (long) quantized[1][2] << 40;
+        }
+        bits |= (long) tables[0] << 37 | (long) tables[1] << 34 | (long) flip << 32;
+        for (int i = 0; i < 16; i++) {
+            bits |= (long) (indices[i] >> 1) << (16 + i) | (long) (indices[i] & 1) << i;
+        }
+        return bits;
+    }
+
+    /**
+     * Searches the EAC tables and multipliers around the block's alpha range, a single alpha
+     * value is stored exactly.
+     */
+    static long encodeAlphaBlock(int[] a) {
+        int min = 255;
+        int max = 0;
+        for (int value : a) {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        if (min == max) {
+            long bits = (long) min << 56 | 1L << 52 | (long) EAC_FLAT_TABLE << 48;
+            for (int i = 0; i < 16; i++) {
+                bits |= (long) EAC_FLAT_INDEX << (45 - 3 * i);
+            }
+            return bits;
+        }
+
+        long bestError = Long.MAX_VALUE;
+        int bestBase = 0;
+        int bestMultiplier = 1;
+        int bestTable = 0;
+        for (int table = 0; table < EAC_MODIFIERS.length && bestError > 0; table++) {
+            int[] modifiers = EAC_MODIFIERS[table];
+            int low = modifiers[3];
+            int high = modifiers[7];
+            int guess = Math.round((max - min) / (float) (high - low));
+            for (int multiplier = Math.max(1, guess - 1); multiplier <= Math.min(15, guess + 1); multiplier++) {
+                int center = Math.round((min + max) / 2f - multiplier * (low + high) / 2f);
+                for (int base = Math.max(0, center - 2); base <= Math.min(255, center + 2); base++) {
+                    long error = 0L;
+                    for (int i = 0; i < 16 && error < bestError; i++) {
+                        error += nearestAlpha(a[i], base, multiplier, modifiers) >>> 8;
+                    }
+                    if (error < bestError) {
+                        bestError = error;
+                        bestBase = base;
+                        bestMultiplier = multiplier;
+                        bestTable = table;
+                    }
+                }
+            }
+        }
+
+        long bits = (long) bestBase << 56 | (long) bestMultiplier << 52 | (long) bestTable << 48;
+        for (int i = 0; i < 16; i++) {
+            long index = nearestAlpha(a[i], bestBase, bestMultiplier, EAC_MODIFIERS[bestTable]) & 7;
+            bits |= index << (45 - 3 * i);
+        }
+        return bits;
+    }
+
+    // Squared error shifted left by 8, nearest modifier index in the low bits
+    private static long nearestAlpha(int alpha, int base, int multiplier, int[] modifiers) {
+        long best = Long.MAX_VALUE;
+        for (int index = 0; index < modifiers.length; index++) {
+            int difference = clamp(base + modifiers[index] * multiplier) - alpha;
+            long candidate = (long) (difference * difference) << 8 | index;
+            if (candidate < best) best = candidate;
+        }
+        return best;
+    }
+
+    private static int etcModifier(int table, int index) {
+        int step = ETC_MODIFIERS[table][index & 1];
+        return (index & 2) != 0 ? -step : step;
+    }
+
+    private static int subBlock(int i, int flip) {
+        int x = i / BLOCK_SIZE;
+        int y = i % BLOCK_SIZE;
+        return flip == 0 ? (x < 2 ? 0 : 1) : (y < 2 ? 0 : 1);
+    }
+
+    private static int quantize(float value, int levels) {
+        return Math.max(0, Math.min(levels, Math.round(value * levels / 255f)));
+    }
+
+    private static int expand5(int value) {
+        return value << 3 | value >> 2;
+    }
+
+    private static int clamp(int value) {
+        return value < 0 ? 0 : Math.min(255, value);
+    }
+
+    private static void writeLong(byte[] out, int offset, long bits) {
+        for (int i = 0; i < 8; i++) {
+            out[offset + i] = (byte) (bits >>> (56 - 8 * i));
+        }
+    }
+}
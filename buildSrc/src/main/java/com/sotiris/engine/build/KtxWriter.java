@@ -0,0 +1,63 @@
+package com.sotiris.engine.build;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * KtxWriter writes a single compressed 2D image, without mipmaps, into a KTX 1.1 container as
+ * libGDX's KTXTextureData reads it. The header is little-endian, the block data is written
+ * as the encoder produced it.
+ */
+public final class KtxWriter {
+    public static final int GL_RGB = 0x1907;
+    public static final int GL_RGBA = 0x1908;
+    public static final int GL_ETC1_RGB8_OES = 0x8D64;
+    public static final int GL_COMPRESSED_RGBA8_ETC2_EAC = 0x9278;
+
+    private static final byte[] IDENTIFIER = {
+            (byte) 0xAB, 'K', 'T', 'X', ' ', '1', '1', (byte) 0xBB, '\r', '\n', 0x1A, '\n'
+    };
+    private static final int HEADER_FIELDS = 13;
+
+    private KtxWriter() {
+    }
+
+    public static void write(File file, int glInternalFormat, int glBaseInternalFormat,
+                             int width, int height, byte[] data) throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Could not create " + parent);
+        }
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+            out.write(IDENTIFIER);
+
+            ByteBuffer header = ByteBuffer.allocate(4 * (HEADER_FIELDS + 1)).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(0x04030201);          // endianness
+            header.putInt(0);                   // glType, 0 when compressed
+            header.putInt(1);                   // glTypeSize
+            header.putInt(0);                   // glFormat, 0 when compressed
+            header.putInt(glInternalFormat);
+            header.putInt(glBaseInternalFormat);
+            header.putInt(width);
+            header.putInt(height);
+            header.putInt(0);                   // pixelDepth
+            header.putInt(0);                   // numberOfArrayElements
+            header.putInt(1);                   // numberOfFaces
+            header.putInt(1);                   // numberOfMipmapLevels
+            header.putInt(0);                   // bytesOfKeyValueData
+            header.putInt(data.length);         // imageSize of the only level
+            out.write(header.array());
+
+            out.write(data);
+            // Levels are padded to 4 bytes, whole ETC blocks already are
+            for (int i = data.length; i % 4 != 0; i++) {
+                out.write(0);
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.sotiris.engine.build;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+/**
+ * TextureCompressor turns an image into the KTX file the game's texture loader looks for next
+ * to it. Opaque images become name.etc1.ktx, which every ETC2 GPU and most GLES 2 ones sample,
+ * images with transparency become name.etc2.ktx (RGBA8 ETC2 EAC) for GLES 3 devices.
+ */
+public final class TextureCompressor {
+    public static final String ETC1_SUFFIX = ".etc1.ktx";
+    public static final String ETC2_SUFFIX = ".etc2.ktx";
+
+    private TextureCompressor() {
+    }
+
+    /**
+     * Compresses image into outputDir and returns the written file.
+     */
+    public static File compress(File image, File outputDir) throws IOException {
+        BufferedImage source = ImageIO.read(image);
+        if (source == null) {
+            throw new IOException("Not a readable image: " + image);
+        }
+        int width = source.getWidth();
+        int height = source.getHeight();
+        int[] argb = source.getRGB(0, 0, width, height, null, 0, width);
+
+        String name = image.getName();
+        int dot = name.lastIndexOf('.');
+        String baseName = dot > 0 ? name.substring(0, dot) : name;
+
+        if (isOpaque(argb)) {
+            File output = new File(outputDir, baseName + ETC1_SUFFIX);
+            KtxWriter.write(output, KtxWriter.GL_ETC1_RGB8_OES, KtxWriter.GL_RGB, width, height,
+                    EtcEncoder.encodeEtc1(argb, width, height));
+            return output;
+        }
+        File output = new File(outputDir, baseName + ETC2_SUFFIX);
+        KtxWriter.write(output, KtxWriter.GL_COMPRESSED_RGBA8_ETC2_EAC, KtxWriter.GL_RGBA, width, height,
+                EtcEncoder.encodeEtc2Rgba(argb, width, height));
+        return output;
+    }
+
+    private static boolean isOpaque(int[] argb) {
+        for (int pixel : argb) {
+            if (pixel >>> 24 != 0xff) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,133 @@
+package com.sotiris.engine.build;
+
+import java.util.Arrays;
+
+/**
+ * Reference decoder for the blocks EtcEncoder writes, written from the ETC1 and ETC2 EAC
+ * specifications rather than from the encoder so the tests check the format, not the code.
+ * Returns ARGB pixels in rows from the top, the block padding cropped away.
+ */
+final class EtcDecoder {
+    private static final int[][] ETC_MODIFIERS = {
+            {2, 8}, {5, 17}, {9, 29}, {13, 42}, {18, 60}, {24, 80}, {33, 106}, {47, 183}
+    };
+    private static final int[][] EAC_MODIFIERS = {
+            {-3, -6, -9, -15, 2, 5, 8, 14},
+            {-3, -7, -10, -13, 2, 6, 9, 12},
+            {-2, -5, -8, -13, 1, 4, 7, 12},
+            {-2, -4, -6, -13, 1, 3, 5, 12},
+            {-3, -6, -8, -12, 2, 5, 7, 11},
+            {-3, -7, -9, -11, 2, 6, 8, 10},
+            {-4, -7, -8, -11, 3, 6, 7, 10},
+            {-3, -5, -8, -11, 2, 4, 7, 10},
+            {-2, -6, -8, -10, 1, 5, 7, 9},
+            {-2, -5, -8, -10, 1, 4, 7, 9},
+            {-2, -4, -8, -10, 1, 3, 7, 9},
+            {-2, -5, -7, -10, 1, 4, 6, 9},
+            {-3, -4, -7, -10, 2, 3, 6, 9},
+            {-1, -2, -3, -10, 0, 1, 2, 9},
+            {-4, -6, -8, -9, 3, 5, 7, 8},
+            {-3, -5, -7, -9, 2, 4, 6, 8}
+    };
+
+    private EtcDecoder() {
+    }
+
+    static int[] decodeEtc1(byte[] data, int width, int height) {
+        return decode(data, width, height, false);
+    }
+
+    static int[] decodeEtc2Rgba(byte[] data, int width, int height) {
+        return decode(data, width, height, true);
+    }
+
+    /**
+     * The 16 pixels of one block, index x * 4 + y, as ARGB with the given alpha.
+     */
+    static int[] decodeColorBlock(long bits, int[] alpha) {
+        boolean differential = (bits >>> 33 & 1) == 1;
+        int flip = (int) (bits >>> 32 & 1);
+        int[][] base = new int[2][3];
+        for (int c = 0; c < 3; c++) {
+            int shift = 59 - 8 * c;
+            if (differential) {
+                int first = (int) (bits >>> shift & 31);
+                int delta = (int) (bits >>> (shift - 3) & 7);
+                if (delta >= 4) delta -= 8;
+                int second = first + delta;
+                if (second < 0 || second > 31) {
+                    throw new IllegalStateException("Differential overflow, not a valid ETC1 block");
+                }
+                base[0][c] = first << 3 | first >> 2;
+                base[1][c] = second << 3 | second >> 2;
+            } else {
+                base[0][c] = (int) (bits >>> (shift + 1) & 15) * 17;
+                base[1][c] = (int) (bits >>> (shift - 3) & 15) * 17;
+            }
+        }
+        int[] tables = {(int) (bits >>> 37 & 7), (int) (bits >>> 34 & 7)};
+        int[] pixels = new int[16];
+        for (int i = 0; i < 16; i++) {
+            int x = i / 4;
+            int y = i % 4;
+            int sub = flip == 0 ? (x < 2 ? 0 : 1) : (y < 2 ? 0 : 1);
+            int msb = (int) (bits >>> (16 + i) & 1);
+            int lsb = (int) (bits >>> i & 1);
+            int modifier = ETC_MODIFIERS[tables[sub]][lsb] * (msb == 1 ? -1 : 1);
+            pixels[i] = alpha[i] << 24
+                    | clamp(base[sub][0] + modifier) << 16
+                    | clamp(base[sub][1] + modifier) << 8
+                    | clamp(base[sub][2] + modifier);
+        }
+        return pixels;
+    }
+
+    static int[] decodeAlphaBlock(long bits) {
+        int base = (int) (bits >>> 56 & 0xff);
+        int multiplier = (int) (bits >>> 52 & 15);
+        int table = (int) (bits >>> 48 & 15);
+        int[] alpha = new int[16];
+        for (int i = 0; i < 16; i++) {
+            int index = (int) (bits >>> (45 - 3 * i) & 7);
+            alpha[i] = clamp(base + EAC_MODIFIERS[table][index] * multiplier);
+        }
+        return alpha;
+    }
+
+    private static int[] decode(byte[] data, int width, int height, boolean rgba) {
+        int blocksX = (width + 3) / 4;
+        int blocksY = (height + 3) / 4;
+        int blockBytes = rgba ? 16 : 8;
+        if (data.length != blocksX * blocksY * blockBytes) {
+            throw new IllegalArgumentException("Expected " + blocksX * blocksY * blockBytes + " bytes, got " + data.length);
+        }
+        int[] opaque = new int[16];
+        Arrays.fill(opaque, 255);
+        int[] out = new int[width * height];
+        for (int by = 0; by < blocksY; by++) {
+            for (int bx = 0; bx < blocksX; bx++) {
+                int offset = (by * blocksX + bx) * blockBytes;
+                int[] alpha = rgba ? decodeAlphaBlock(readLong(data, offset)) : opaque;
+                int[] block = decodeColorBlock(readLong(data, offset + (rgba ? 8 : 0)), alpha);
+                for (int i = 0; i < 16; i++) {
+                    int x = bx * 4 + i / 4;
+                    int y = by * 4 + i % 4;
+                    if (x < width && y < height) out[y * width + x] = block[i];
+                }
+            }
+        }
+        return out;
+    }
+
+    static long readLong(byte[] data, int offset) {
+        long bits = 0L;
+        for (int i = 0; i < 8; i++) {
+            bits = bits << 8 | (data[offset + i] & 0xffL);
+        }
+        return bits;
+    }
+
+    private static int clamp(int value) {
+        return value < 0 ? 0 : Math.min(255, value);
+    }
+}
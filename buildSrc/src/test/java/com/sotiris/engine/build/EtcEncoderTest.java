@@ -0,0 +1,156 @@
+package com.sotiris.engine.build;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Round trips EtcEncoder output through the reference decoder, on generated fixtures so the
+ * expected quality does not depend on the game's art.
+ */
+public class EtcEncoderTest {
+    private static final double MIN_COLOR_PSNR = 30.0;
+    private static final double MIN_ALPHA_PSNR = 35.0;
+
+    @Test
+    public void etc1RoundTripKeepsColor() {
+        int width = 32;
+        int height = 24;
+        int[] image = gradient(width, height, 255);
+
+        byte[] blocks = EtcEncoder.encodeEtc1(image, width, height);
+        assertEquals(8 * 8 * 6, blocks.length);
+        int[] decoded = EtcDecoder.decodeEtc1(blocks, width, height);
+
+        assertTrue("ETC1 colour PSNR too low", colorPsnr(image, decoded) >= MIN_COLOR_PSNR);
+    }
+
+    @Test
+    public void eacRoundTripKeepsAlphaAndColor() {
+        int width = 32;
+        int height = 24;
+        int[] image = gradient(width, height, -1);
+
+        byte[] blocks = EtcEncoder.encodeEtc2Rgba(image, width, height);
+        assertEquals(16 * 8 * 6, blocks.length);
+        int[] decoded = EtcDecoder.decodeEtc2Rgba(blocks, width, height);
+
+        assertTrue("EAC alpha PSNR too low", alphaPsnr(image, decoded) >= MIN_ALPHA_PSNR);
+        assertTrue("ETC2 colour PSNR too low", colorPsnr(image, decoded) >= MIN_COLOR_PSNR);
+    }
+
+    @Test
+    public void flatAlphaBlockDecodesExactly() {
+        for (int value : new int[]{0, 1, 137, 254, 255}) {
+            int[] alpha = new int[16];
+            Arrays.fill(alpha, value);
+            int[] decoded = EtcDecoder.decodeAlphaBlock(EtcEncoder.encodeAlphaBlock(alpha));
+            for (int i = 0; i < 16; i++) {
+                assertEquals("Alpha " + value + " at pixel " + i, value, decoded[i]);
+            }
+        }
+    }
+
+    @Test
+    public void edgesArePaddedWithTheLastRowAndColumn() {
+        // 5x5, the last column red and the rest blue: the second block column only sees red,
+        // the padding repeats it instead of pulling in black
+        int width = 5;
+        int height = 5;
+        int[] image = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image[y * width + x] = x == width - 1 ? 0xffff0000 : 0xff0000ff;
+            }
+        }
+
+        byte[] blocks = EtcEncoder.encodeEtc1(image, width, height);
+        assertEquals(2 * 2 * 8, blocks.length);
+        int blocksX = EtcEncoder.blocksAcross(width);
+        for (int by = 0; by < 2; by++) {
+            int[] block = EtcDecoder.decodeColorBlock(EtcDecoder.readLong(blocks, (by * blocksX + 1) * 8), new int[16]);
+            for (int pixel : block) {
+                assertTrue("Padded pixel not red: " + Integer.toHexString(pixel), red(pixel) > 200 && blue(pixel) < 55);
+            }
+        }
+        int[] decoded = EtcDecoder.decodeEtc1(blocks, width, height);
+        assertTrue(colorPsnr(image, decoded) >= MIN_COLOR_PSNR);
+    }
+
+    @Test
+    public void transparentPixelsDoNotCostColor() {
+        // Fully transparent pixels carry junk colour, the visible half must still come out clean
+        int width = 8;
+        int height = 8;
+        int[] image = new int[width * height];
+        for (int i = 0; i < image.length; i++) {
+            image[i] = i % width < 4 ? 0xff3c78b4 : 0x00ff00ff;
+        }
+        int[] decoded = EtcDecoder.decodeEtc2Rgba(EtcEncoder.encodeEtc2Rgba(image, width, height), width, height);
+        for (int i = 0; i < image.length; i++) {
+            assertEquals(image[i] >>> 24, decoded[i] >>> 24);
+            if (image[i] >>> 24 != 0) {
+                assertTrue(Math.abs(red(image[i]) - red(decoded[i])) <= 8);
+                assertTrue(Math.abs(blue(image[i]) - blue(decoded[i])) <= 8);
+            }
+        }
+    }
+
+    // Smooth colour ramps with a little deterministic texture, alpha < 0 ramps alpha as well
+    private static int[] gradient(int width, int height, int alpha) {
+        int[] image = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int noise = ((x * 7 + y * 13) % 5) * 2;
+                int r = clamp(x * 255 / (width - 1) + noise);
+                int g = clamp(y * 255 / (height - 1) - noise);
+                int b = clamp((x + y) * 255 / (width + height - 2));
+                int a = alpha >= 0 ? alpha : clamp(255 - (x + y) * 255 / (width + height - 2));
+                image[y * width + x] = a << 24 | r << 16 | g << 8 | b;
+            }
+        }
+        return image;
+    }
+
+    // Over pixels with any alpha, as the encoder ignores the colour of fully transparent ones
+    private static double colorPsnr(int[] expected, int[] actual) {
+        double error = 0;
+        int samples = 0;
+        for (int i = 0; i < expected.length; i++) {
+            if (expected[i] >>> 24 == 0) continue;
+            for (int shift = 0; shift <= 16; shift += 8) {
+                int difference = (expected[i] >> shift & 0xff) - (actual[i] >> shift & 0xff);
+                error += difference * difference;
+                samples++;
+            }
+        }
+        return psnr(error / samples);
+    }
+
+    private static double alphaPsnr(int[] expected, int[] actual) {
+        double error = 0;
+        for (int i = 0; i < expected.length; i++) {
+            int difference = (expected[i] >>> 24) - (actual[i] >>> 24);
+            error += difference * difference;
+        }
+        return psnr(error / expected.length);
+    }
+
+    private static double psnr(double meanSquaredError) {
+        return meanSquaredError == 0 ? Double.POSITIVE_INFINITY : 10 * Math.log10(255 * 255 / meanSquaredError);
+    }
+
+    private static int red(int argb) {
+        return argb >> 16 & 0xff;
+    }
+
+    private static int blue(int argb) {
+        return argb & 0xff;
+    }
+
+    private static int clamp(int value) {
+        return value < 0 ? 0 : Math.min(255, value);
+    }
+}
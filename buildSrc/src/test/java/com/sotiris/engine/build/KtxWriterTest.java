@@ -0,0 +1,60 @@
+package com.sotiris.engine.build;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class KtxWriterTest {
+    private static final byte[] IDENTIFIER = {
+            (byte) 0xAB, 'K', 'T', 'X', ' ', '1', '1', (byte) 0xBB, '\r', '\n', 0x1A, '\n'
+    };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void writesHeaderAndImageSize() throws IOException {
+        int width = 6;
+        int height = 5;
+        int[] image = new int[width * height];
+        Arrays.fill(image, 0x80336699);
+        byte[] data = EtcEncoder.encodeEtc2Rgba(image, width, height);
+        File file = new File(folder.getRoot(), "nested/image.etc2.ktx");
+
+        KtxWriter.write(file, KtxWriter.GL_COMPRESSED_RGBA8_ETC2_EAC, KtxWriter.GL_RGBA, width, height, data);
+
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        assertArrayEquals(IDENTIFIER, Arrays.copyOf(bytes, IDENTIFIER.length));
+        ByteBuffer header = ByteBuffer.wrap(bytes, IDENTIFIER.length, bytes.length - IDENTIFIER.length)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(0x04030201, header.getInt());
+        assertEquals("glType", 0, header.getInt());
+        assertEquals("glTypeSize", 1, header.getInt());
+        assertEquals("glFormat", 0, header.getInt());
+        assertEquals(KtxWriter.GL_COMPRESSED_RGBA8_ETC2_EAC, header.getInt());
+        assertEquals(KtxWriter.GL_RGBA, header.getInt());
+        assertEquals(width, header.getInt());
+        assertEquals(height, header.getInt());
+        assertEquals("pixelDepth", 0, header.getInt());
+        assertEquals("numberOfArrayElements", 0, header.getInt());
+        assertEquals("numberOfFaces", 1, header.getInt());
+        assertEquals("numberOfMipmapLevels", 1, header.getInt());
+        assertEquals("bytesOfKeyValueData", 0, header.getInt());
+
+        // 2x2 blocks of 16 bytes, right after the imageSize field
+        int imageSize = header.getInt();
+        assertEquals(2 * 2 * 16, imageSize);
+        assertEquals(data.length, imageSize);
+        assertEquals(header.position() + imageSize, bytes.length);
+        assertArrayEquals(data, Arrays.copyOfRange(bytes, header.position(), bytes.length));
+    }
+}